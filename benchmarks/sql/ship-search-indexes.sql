@@ -0,0 +1,51 @@
+-- Query plan and latency benchmark for the ship search indexes (V2__ship_search_indexes.sql).
+-- Requires MySQL 8.0.18+ (recursive CTE, EXPLAIN ANALYZE).
+--
+--   mysql -u root -p < benchmarks/sql/ship-search-indexes.sql > before.txt
+--   mysql -u root -p cosmoport_bench < src/main/resources/db/migration/V2__ship_search_indexes.sql
+--   (comment out the data generation section) mysql -u root -p < benchmarks/sql/ship-search-indexes.sql > after.txt
+
+CREATE DATABASE IF NOT EXISTS cosmoport_bench;
+USE cosmoport_bench;
+
+-- data generation: one million ships with the same value domains the service validates
+DROP TABLE IF EXISTS ship;
+SOURCE src/main/resources/db/migration/V1__create_ship_table.sql;
+
+SET SESSION cte_max_recursion_depth = 1000000;
+INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating)
+WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000000)
+SELECT CONCAT('Ship ', n),
+       ELT(1 + n % 8, 'Mercury', 'Venus', 'Earth', 'Mars', 'Jupiter', 'Saturn', 'Uranus', 'Neptune'),
+       ELT(1 + n % 3, 'TRANSPORT', 'MILITARY', 'MERCHANT'),
+       MAKEDATE(2800 + n % 220, 1),
+       n % 4 = 0,
+       ROUND(0.01 + (n * 7919 % 99) / 100, 2),
+       1 + n * 104729 % 9999,
+       ROUND(80 * (0.01 + (n * 7919 % 99) / 100) * IF(n % 4 = 0, 0.5, 1) / (3019 - (2800 + n % 220) + 1), 2)
+FROM seq;
+ANALYZE TABLE ship;
+
+-- GET /rest/ships?shipType=MILITARY&isUsed=false&order=SPEED
+EXPLAIN ANALYZE
+SELECT * FROM ship WHERE shipType = 'MILITARY' AND isUsed = false ORDER BY speed LIMIT 0, 3;
+
+-- GET /rest/ships?minSpeed=0.8&order=RATING&pageNumber=100
+EXPLAIN ANALYZE
+SELECT * FROM ship WHERE speed >= 0.8 ORDER BY rating LIMIT 300, 3;
+
+-- GET /rest/ships?after=...&before=...&order=DATE
+EXPLAIN ANALYZE
+SELECT * FROM ship WHERE prodDate BETWEEN '3000-01-01' AND '3005-01-01' ORDER BY prodDate LIMIT 0, 3;
+
+-- GET /rest/ships?minCrewSize=9000&maxRating=1
+EXPLAIN ANALYZE
+SELECT * FROM ship WHERE crewSize >= 9000 AND rating <= 1 ORDER BY id LIMIT 0, 3;
+
+-- GET /rest/ships/count?shipType=MERCHANT&isUsed=true
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM ship WHERE shipType = 'MERCHANT' AND isUsed = true;
+
+-- GET /rest/ships/count?shipType=TRANSPORT&minRating=5
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM ship WHERE shipType = 'TRANSPORT' AND rating >= 5;
@@ -0,0 +1,74 @@
+package com.space.benchmark;
+
+import com.space.config.AppConfig;
+import com.space.config.WebConfig;
+import org.hibernate.SessionFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+// the application as the tests see it, backed by an H2 fleet of the requested size
+public final class BenchmarkContext implements AutoCloseable {
+    private final AnnotationConfigWebApplicationContext context;
+    private final MockMvc mockMvc;
+
+    private BenchmarkContext(AnnotationConfigWebApplicationContext context) {
+        this.context = context;
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    public static BenchmarkContext start(int rows) {
+        return start(rows, new HashMap<>());
+    }
+
+    public static BenchmarkContext start(int rows, Map<String, Object> properties) {
+        AnnotationConfigWebApplicationContext context = webContext(rows, properties);
+        context.setServletContext(new MockServletContext());
+        context.refresh();
+        return new BenchmarkContext(context);
+    }
+
+    // not yet refreshed, for a DispatcherServlet in a real container to start
+    public static AnnotationConfigWebApplicationContext webContext(int rows, Map<String, Object> properties) {
+        Map<String, Object> benchProperties = new HashMap<>(properties);
+        benchProperties.put(BenchmarkDataConfig.ROWS_PROPERTY, rows);
+
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.getEnvironment().setActiveProfiles("bench");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("bench", benchProperties));
+        context.register(AppConfig.class, WebConfig.class, BenchmarkDataConfig.class);
+        return context;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public byte[] get(String url) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result)).andReturn();
+        }
+        if (result.getResponse().getStatus() != 200) {
+            throw new IllegalStateException(url + " answered " + result.getResponse().getStatus());
+        }
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    public void evictCaches() {
+        getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
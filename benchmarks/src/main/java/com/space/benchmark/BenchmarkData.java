@@ -0,0 +1,46 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// deterministic fleet covering the value domains ShipService validates
+public final class BenchmarkData {
+    private static final String[] PLANETS = {"Mercury", "Venus", "Earth", "Mars", "Jupiter", "Saturn", "Uranus", "Neptune"};
+
+    private BenchmarkData() {
+    }
+
+    public static List<Ship> ships(int count) {
+        List<Ship> result = new ArrayList<>(count);
+        for (int n = 1; n <= count; n++) {
+            result.add(ship(n));
+        }
+        return result;
+    }
+
+    public static Ship ship(long n) {
+        int year = 2800 + (int) (n % 220);
+        boolean isUsed = n % 4 == 0;
+        double speed = BigDecimal.valueOf(0.01 + (n * 7919 % 99) / 100.0).setScale(2, RoundingMode.HALF_UP).doubleValue();
+
+        Ship ship = new Ship();
+        ship.setId(n);
+        ship.setName("Ship " + n);
+        ship.setPlanet(PLANETS[(int) (n % PLANETS.length)]);
+        ship.setShipType(ShipType.values()[(int) (n % 3)]);
+        ship.setProdDate(new Date(LocalDate.of(year, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli()));
+        ship.setUsed(isUsed);
+        ship.setSpeed(speed);
+        ship.setCrewSize(1 + (int) (n * 104729 % 9999));
+        ship.setRating(BigDecimal.valueOf(80 * speed * (isUsed ? 0.5 : 1) / (3019 - year + 1)).setScale(2, RoundingMode.HALF_UP).doubleValue());
+        return ship;
+    }
+}
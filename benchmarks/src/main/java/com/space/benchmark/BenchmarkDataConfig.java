@@ -0,0 +1,58 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+@Configuration
+@Profile("bench")
+public class BenchmarkDataConfig {
+    public static final String ROWS_PROPERTY = "bench.rows";
+    public static final String QUERY_LATENCY_PROPERTY = "bench.queryLatencyMs";
+    private static final int BATCH_SIZE = 1000;
+
+    @Bean(name = "dataSource")
+    public DataSource dataSource(Environment env) {
+        EmbeddedDatabase dataSource = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .setScriptEncoding("UTF-8")
+                .addScript("bench-schema.sql")
+                .build();
+
+        int rows = env.getProperty(ROWS_PROPERTY, Integer.class, 1000);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int n = 1; n <= rows; n++) {
+            Ship ship = BenchmarkData.ship(n);
+            batch.add(new Object[]{ship.getName(), ship.getPlanet(), ship.getShipType().name(),
+                    new java.sql.Date(ship.getProdDate().getTime()), ship.getUsed(), ship.getSpeed(),
+                    ship.getCrewSize(), ship.getRating()});
+            if (batch.size() == BATCH_SIZE || n == rows) {
+                jdbcTemplate.batchUpdate("INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // pooled like the prod DataSource, so connection setup does not dominate every transaction
+        HikariConfig config = new HikariConfig();
+        // an in-memory query takes microseconds; a delay per statement stands in for the MySQL round trip
+        int latencyMs = env.getProperty(QUERY_LATENCY_PROPERTY, Integer.class, 0);
+        config.setDataSource(latencyMs > 0 ? new LatencyDataSource(dataSource, latencyMs) : dataSource);
+        config.setMaximumPoolSize(env.getProperty("db.pool.maxSize", Integer.class, 20));
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,71 @@
+package com.space.benchmark;
+
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.service.IShipService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// getShipsCount filtered by shipType and isUsed, from the id bitmaps against SQL with a cold query cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitmapIndexBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean bitmap;
+
+    private BenchmarkContext context;
+    private IShipService shipService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(rows, Collections.singletonMap("search.bitmap.enabled", bitmap));
+        shipService = context.getBean(IShipService.class);
+        shipService.getShipsCount(filter(ShipType.MERCHANT, null));
+    }
+
+    @Setup(Level.Invocation)
+    public void evict() {
+        context.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    private static ShipFilter filter(ShipType shipType, Boolean isUsed) {
+        return new ShipFilter(null, null, shipType, null, null, isUsed, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public Integer countByType() {
+        return shipService.getShipsCount(filter(ShipType.MILITARY, null));
+    }
+
+    @Benchmark
+    public Integer countByTypeAndUse() {
+        return shipService.getShipsCount(filter(ShipType.TRANSPORT, false));
+    }
+}
@@ -0,0 +1,74 @@
+package com.space.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// end-to-end MockMvc throughput of the REST endpoints
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    // false evicts the second-level and query caches before every call, measuring the database path
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private BenchmarkContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(rows);
+    }
+
+    @Setup(Level.Invocation)
+    public void evict() {
+        if (!cached) {
+            context.evictCaches();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getShip() throws Exception {
+        return context.get("/rest/ships/" + (1 + ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public byte[] getAllShipsFiltered() throws Exception {
+        return context.get("/rest/ships?shipType=MILITARY&isUsed=false&minSpeed=0.5&order=RATING&pageNumber=2&pageSize=20");
+    }
+
+    @Benchmark
+    public byte[] getAllShipsDeepPage() throws Exception {
+        return context.get("/rest/ships?order=SPEED&pageSize=20&pageNumber=" + (rows / 40));
+    }
+
+    @Benchmark
+    public byte[] getCountFiltered() throws Exception {
+        return context.get("/rest/ships/count?shipType=MERCHANT&minCrewSize=100&maxRating=3");
+    }
+}
@@ -0,0 +1,100 @@
+package com.space.benchmark;
+
+import com.space.config.CompressionFilter;
+import com.space.config.WebConfig;
+import com.space.controller.ShipJson;
+import com.space.controller.ShipJsonCache;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A page of ships as GET /rest/ships sends it in each format (JSON spliced from ShipJsonCache, CBOR, Smile) and
+// content coding, compressed while it is written as CompressionFilter does. Encode time is the score; the payload
+// size of every combination is printed once at setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    @Param({"application/json", "application/cbor", "application/x-jackson-smile"})
+    public String format;
+
+    @Param({"identity", "gzip", "deflate"})
+    public String encoding;
+
+    // compression.level: 1 is fastest, 6 is zlib's default, 9 is smallest
+    @Param({"1", "6"})
+    public int level;
+
+    private MediaType mediaType;
+    private HttpMessageConverter<Object> converter;
+    private List<Ship> ships;
+    private ShipJsonCache jsonCache;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        mediaType = MediaType.parseMediaType(format);
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig().configureMessageConverters(converters);
+        // the first that takes a ShipJson in this format, as content negotiation would pick
+        for (HttpMessageConverter<?> candidate : converters) {
+            if (converter == null && candidate.canWrite(ShipJson.class, mediaType)) {
+                converter = (HttpMessageConverter<Object>) candidate;
+            }
+        }
+        ships = BenchmarkData.ships(size);
+        jsonCache = new ShipJsonCache(new WebConfig().objectMapper(), true, size);
+        System.out.printf("%n%s, %s level %d, %d ships: %d bytes%n", format, encoding, level, size, encode().size());
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream writeShipPage() throws IOException {
+        return encode();
+    }
+
+    private ByteArrayOutputStream encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream body = encoding.equals("identity") ? bytes : CompressionFilter.compressor(encoding, level, bytes);
+        HttpHeaders headers = new HttpHeaders();
+        converter.write(jsonCache.array(ships), mediaType, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        body.close();
+        return bytes;
+    }
+}
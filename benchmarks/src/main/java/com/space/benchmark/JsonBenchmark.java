@@ -0,0 +1,94 @@
+package com.space.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.WebConfig;
+import com.space.controller.ShipJsonCache;
+import com.space.controller.ShipJsonHttpMessageConverter;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// List<Ship> serialization through the Jackson converter WebConfig registers, with the hand-written Ship codec or
+// the field-visibility introspection it replaced, against the same list spliced from pre-rendered fragments by
+// ShipJsonCache; run with -prof gc for bytes/op
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    private static final Type SHIP_LIST = new ParameterizedTypeReference<List<Ship>>() {
+    }.getType();
+
+    @Param({"3", "100", "1000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean codec;
+
+    private List<Ship> ships;
+    private GenericHttpMessageConverter<Object> converter;
+    private ShipJsonHttpMessageConverter splicingConverter;
+    private ShipJsonCache jsonCache;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig().configureMessageConverters(converters);
+        for (HttpMessageConverter<?> candidate : converters) {
+            if (candidate instanceof MappingJackson2HttpMessageConverter) {
+                converter = (GenericHttpMessageConverter<Object>) candidate;
+            } else if (candidate instanceof ShipJsonHttpMessageConverter) {
+                splicingConverter = (ShipJsonHttpMessageConverter) candidate;
+            }
+        }
+        if (!codec) {
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+            objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+            converter = new MappingJackson2HttpMessageConverter(objectMapper);
+        }
+        ships = BenchmarkData.ships(size);
+        jsonCache = new ShipJsonCache(new WebConfig().objectMapper(), true, size);
+        jsonCache.array(ships);
+    }
+
+    @Benchmark
+    public byte[] writeShipList() throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(ships, SHIP_LIST, MediaType.APPLICATION_JSON_UTF8, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public byte[] spliceShipList() throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        splicingConverter.write(jsonCache.array(ships), MediaType.APPLICATION_JSON_UTF8, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+}
@@ -0,0 +1,73 @@
+package com.space.benchmark;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Sleeps before every statement execution while holding the connection, as a thread blocked on a remote
+// database would
+final class LatencyDataSource extends DelegatingDataSource {
+    private final long latencyMs;
+
+    LatencyDataSource(DataSource target, long latencyMs) {
+        super(target);
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, result, statement(result));
+            }
+            if (result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, result, statement(result));
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, result, statement(result));
+            }
+            return result;
+        });
+    }
+
+    private InvocationHandler statement(Object target) {
+        return (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                Thread.sleep(latencyMs);
+            }
+            return invoke(target, method, args);
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(LatencyDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,134 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.service.IShipService;
+import org.hibernate.jpa.QueryHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// per-request cost of the Criteria/Specification path against the cached JPQL plans, both answered from the
+// query cache after warm-up so what remains is building, translating and binding the statement. The Criteria
+// path is rebuilt here as ShipService ran it before the plans replaced it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryPlanBenchmark {
+    private static final Pageable PAGE = PageRequest.of(1, 20, Sort.by("speed").and(Sort.by("id")));
+
+    private BenchmarkContext context;
+    private IShipService shipService;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void start() {
+        context = BenchmarkContext.start(1000);
+        shipService = context.getBean(IShipService.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    private Specification<Ship> specification() {
+        return Specification.where(shipService.searchByName(null))
+                .and(shipService.searchByPlanet(null))
+                .and(shipService.searchByShipType(ShipType.MILITARY))
+                .and(shipService.searchByProdDate(26192246400000L, 33134745600000L))
+                .and(shipService.searchByUse(false))
+                .and(shipService.searchBySpeed(0.1, 0.9))
+                .and(shipService.searchByCrewSize(10, 5000))
+                .and(shipService.searchByRating(null, null));
+    }
+
+    private ShipFilter filter() {
+        return new ShipFilter(null, null, ShipType.MILITARY, 26192246400000L, 33134745600000L, false,
+                0.1, 0.9, 10, 5000, null, null);
+    }
+
+    @Benchmark
+    public Slice<Ship> specificationSlice() {
+        return readOnly.execute(status -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Ship> query = criteriaBuilder.createQuery(Ship.class);
+            Root<Ship> root = where(query, criteriaBuilder);
+            query.orderBy(QueryUtils.toOrders(PAGE.getSort(), root, criteriaBuilder));
+
+            List<Ship> content = entityManager.createQuery(query)
+                    .setFirstResult((int) PAGE.getOffset())
+                    .setMaxResults(PAGE.getPageSize() + 1)
+                    .setHint(QueryHints.HINT_CACHEABLE, true)
+                    .getResultList();
+            boolean hasNext = content.size() > PAGE.getPageSize();
+            return new SliceImpl<>(hasNext ? content.subList(0, PAGE.getPageSize()) : content, PAGE, hasNext);
+        });
+    }
+
+    @Benchmark
+    public Slice<Ship> planSlice() {
+        return shipService.getShipsSlice(filter(), PAGE);
+    }
+
+    @Benchmark
+    public Integer specificationCount() {
+        return readOnly.execute(status -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+            query.select(criteriaBuilder.count(where(query, criteriaBuilder)));
+            return Math.toIntExact(entityManager.createQuery(query)
+                    .setHint(QueryHints.HINT_CACHEABLE, true)
+                    .getSingleResult());
+        });
+    }
+
+    private Root<Ship> where(CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        Root<Ship> root = query.from(Ship.class);
+        Predicate predicate = specification().toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return root;
+    }
+
+    @Benchmark
+    public Integer planCount() {
+        return shipService.getShipsCount(filter());
+    }
+}
@@ -0,0 +1,84 @@
+package com.space.benchmark;
+
+import com.space.model.ShipFilter;
+import com.space.service.IShipService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// range counts and SPEED/RATING pages from the sorted range index against SQL with a cold query cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeIndexBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean range;
+
+    private BenchmarkContext context;
+    private IShipService shipService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(rows, Collections.singletonMap("search.range.enabled", range));
+        shipService = context.getBean(IShipService.class);
+        shipService.getShipsCount(speedBetween(0.1, 0.9));
+    }
+
+    @Setup(Level.Invocation)
+    public void evict() {
+        context.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    private static ShipFilter speedBetween(double minSpeed, double maxSpeed) {
+        return new ShipFilter(null, null, null, null, null, null, minSpeed, maxSpeed, null, null, null, null);
+    }
+
+    @Benchmark
+    public Integer countBySpeed() {
+        return shipService.getShipsCount(speedBetween(0.3, 0.6));
+    }
+
+    @Benchmark
+    public Integer countBySpeedAndCrew() {
+        return shipService.getShipsCount(new ShipFilter(null, null, null, null, null, null, 0.3, 0.6, 100, 2000, null, null));
+    }
+
+    @Benchmark
+    public Slice<?> pageBySpeed() {
+        return shipService.getShipsSlice(speedBetween(0.3, 0.6), PageRequest.of(2, 10, Sort.by("speed").and(Sort.by("id"))));
+    }
+
+    @Benchmark
+    public Slice<?> pageByRating() {
+        return shipService.getShipsSlice(new ShipFilter(null, null, null, null, null, true, null, null, null, null, 1.0, null),
+                PageRequest.of(0, 10, Sort.by("rating").and(Sort.by("id"))));
+    }
+}
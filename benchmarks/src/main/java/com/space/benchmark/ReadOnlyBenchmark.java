@@ -0,0 +1,67 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.service.IShipService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// the list query in a read-only transaction against a read-write one, which keeps a snapshot of every loaded ship
+// for dirty checking and flushes at commit; getShipsSlice joins the transaction opened here. Run with -prof gc for
+// bytes/op:
+//   java -jar benchmarks/target/benchmarks.jar ReadOnlyBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyBenchmark {
+    private static final Pageable PAGE = PageRequest.of(0, 100, Sort.by("id"));
+    private static final ShipFilter ALL = new ShipFilter(null, null, null, null, null, null,
+            null, null, null, null, null, null);
+
+    @Param({"true", "false"})
+    public boolean readOnly;
+
+    private BenchmarkContext context;
+    private IShipService shipService;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(1000);
+        shipService = context.getBean(IShipService.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(readOnly);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Ship> list() {
+        return transaction.execute(status -> shipService.getShipsSlice(ALL, PAGE));
+    }
+}
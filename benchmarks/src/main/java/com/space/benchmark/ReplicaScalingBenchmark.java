@@ -0,0 +1,78 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.service.ShipReplica;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// replica scans over all eight filters on 1..N fork-join workers; parallelism 1 is the sequential scan, and the
+// numbers only mean something on a machine with at least that many free cores
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplicaScalingBenchmark {
+    private static final Pageable PAGE = PageRequest.of(3, 20, Sort.by("rating").and(Sort.by("id")));
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private BenchmarkContext context;
+    private ShipReplica replica;
+
+    @Setup
+    public void start() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("replica.enabled", true);
+        properties.put("replica.parallelism", parallelism);
+        properties.put("replica.parallelThreshold", 0);
+        context = BenchmarkContext.start(rows, properties);
+        replica = context.getBean(ShipReplica.class);
+        replica.count(filter());
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    private static ShipFilter filter() {
+        return new ShipFilter("er", null, ShipType.MILITARY, 26192246400000L, 33134745600000L, false,
+                0.1, 0.9, 10, 5000, null, null);
+    }
+
+    @Benchmark
+    public int count() {
+        return replica.count(filter());
+    }
+
+    @Benchmark
+    public Slice<Ship> topK() {
+        return replica.find(filter(), PAGE);
+    }
+}
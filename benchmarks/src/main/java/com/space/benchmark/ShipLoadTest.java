@@ -0,0 +1,207 @@
+package com.space.benchmark;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Sustained load on GET /rest/ships through an embedded Tomcat with a fixed number of container threads. Every
+// client keeps one request in flight; each request runs one query, delayed by bench.queryLatencyMs to stand in
+// for MySQL. Prints completed requests per second and latency percentiles over the measured period.
+//
+//   java -Ddb.pool.maxSize=50 -cp benchmarks/target/benchmarks.jar com.space.benchmark.ShipLoadTest
+//   java -Ddb.pool.maxSize=50 -Dasync.enabled=true -Dasync.poolSize=50 -cp ... com.space.benchmark.ShipLoadTest
+//
+// On Java 21 the clients run on virtual threads, and -Dload.virtualThreads=true runs the requests on them too
+// (Tomcat's useVirtualThreads, which ignores load.containerThreads):
+//
+//   java -Ddb.pool.maxSize=50 -Dload.clients=1000 -Dload.containerThreads=200 -cp ... ShipLoadTest
+//   java -Ddb.pool.maxSize=50 -Dload.clients=1000 -Dload.virtualThreads=true -cp ... ShipLoadTest
+//
+// -Dload.clients (200), -Dload.containerThreads (10), -Dload.virtualThreads (false), -Dload.warmupSeconds (5),
+// -Dload.seconds (15), -Dbench.rows (10000), -Dbench.queryLatencyMs (100) and any application property
+public final class ShipLoadTest {
+
+    private ShipLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 200);
+        int containerThreads = Integer.getInteger("load.containerThreads", 10);
+        boolean virtualThreads = Boolean.getBoolean("load.virtualThreads");
+        int warmupSeconds = Integer.getInteger("load.warmupSeconds", 5);
+        int seconds = Integer.getInteger("load.seconds", 15);
+        int rows = Integer.getInteger(BenchmarkDataConfig.ROWS_PROPERTY, 10000);
+        int latencyMs = Integer.getInteger(BenchmarkDataConfig.QUERY_LATENCY_PROPERTY, 100);
+        // the JDK client keeps only 5 idle connections per host by default
+        System.setProperty("http.maxConnections", String.valueOf(clients));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(BenchmarkDataConfig.QUERY_LATENCY_PROPERTY, latencyMs);
+        Tomcat tomcat = start(BenchmarkContext.webContext(rows, properties), containerThreads, virtualThreads, clients);
+        ExecutorService clientThreads = clientThreads();
+        try {
+            String url = "http://localhost:" + tomcat.getConnector().getLocalPort() + "/rest/ships?pageSize=10&minSpeed=";
+
+            Client[] running = new Client[clients];
+            CountDownLatch done = new CountDownLatch(clients);
+            long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+            for (int i = 0; i < clients; i++) {
+                running[i] = new Client(url, warmupEnd, end, done);
+                clientThreads.execute(running[i]);
+            }
+            done.await();
+
+            report(running, seconds, clients, virtualThreads ? "virtual" : String.valueOf(containerThreads), latencyMs);
+        } finally {
+            clientThreads.shutdown();
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    // virtual threads when the JVM has them, so that a thousand clients cost less than the server they measure
+    private static ExecutorService clientThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "load-client");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static Tomcat start(AnnotationConfigWebApplicationContext webContext, int containerThreads,
+                                boolean virtualThreads, int clients) throws Exception {
+        Tomcat tomcat = new Tomcat();
+        String baseDir = Files.createTempDirectory("cosmoport-load").toString();
+        tomcat.setBaseDir(baseDir);
+        tomcat.setPort(0);
+        Connector connector = tomcat.getConnector();
+        connector.setProperty("maxThreads", String.valueOf(containerThreads));
+        connector.setProperty("minSpareThreads", String.valueOf(containerThreads));
+        connector.setProperty("useVirtualThreads", String.valueOf(virtualThreads));
+        // every client connects at once
+        connector.setProperty("acceptCount", String.valueOf(clients));
+
+        Context context = tomcat.addContext("", baseDir);
+        Wrapper dispatcher = Tomcat.addServlet(context, "dispatcher", new DispatcherServlet(webContext));
+        dispatcher.setAsyncSupported(true);
+        dispatcher.setLoadOnStartup(1);
+        context.addServletMappingDecoded("/", "dispatcher");
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static void report(Client[] clients, int seconds, int clientCount, String containerThreads, int latencyMs) {
+        int total = 0;
+        int failed = 0;
+        int unavailable = 0;
+        for (Client client : clients) {
+            total += client.count;
+            failed += client.failed;
+            unavailable += client.unavailable;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Client client : clients) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("async.enabled=%s, %s container threads, %d clients, %d ms per query: %.0f req/s, "
+                        + "p50 %.1f ms, p99 %.1f ms, max %.1f ms, 503 %d, other errors %d%n",
+                System.getProperty("async.enabled", "false"), containerThreads, clientCount, latencyMs,
+                (double) total / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 1.0), unavailable, failed);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // one request at a time until the end; only requests that start after the warm-up are counted
+    private static final class Client implements Runnable {
+        private final String url;
+        private final long warmupEnd;
+        private final long end;
+        private final CountDownLatch done;
+        private final byte[] buffer = new byte[8192];
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int failed;
+        private int unavailable;
+
+        Client(String url, long warmupEnd, long end, CountDownLatch done) {
+            this.url = url;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (long start = System.nanoTime(); start < end; start = System.nanoTime()) {
+                    int status = request();
+                    if (start < warmupEnd) {
+                        continue;
+                    }
+                    if (status == 200) {
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    } else if (status == 503) {
+                        unavailable++;
+                    } else {
+                        failed++;
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        // a distinct minSpeed every time, so the query cache never answers
+        private int request() {
+            try {
+                double minSpeed = ThreadLocalRandom.current().nextDouble(0.01, 0.5);
+                HttpURLConnection connection = (HttpURLConnection) new URL(url + minSpeed).openConnection();
+                int status = connection.getResponseCode();
+                try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                    while (in != null && in.read(buffer) >= 0) {
+                        // drained, so the connection goes back to the keep-alive cache
+                    }
+                }
+                return status;
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+    }
+}
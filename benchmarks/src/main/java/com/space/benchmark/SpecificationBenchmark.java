@@ -0,0 +1,71 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.IShipService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.concurrent.TimeUnit;
+
+// the eight-filter Specification chain ShipController.getAllShips builds per request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecificationBenchmark {
+    private BenchmarkContext context;
+    private IShipService shipService;
+    private EntityManager entityManager;
+
+    @Setup
+    public void start() {
+        context = BenchmarkContext.start(0);
+        shipService = context.getBean(IShipService.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown
+    public void stop() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Specification<Ship> compose() {
+        return Specification.where(shipService.searchByName("Ship")
+                .and(shipService.searchByPlanet("ar")))
+                .and(shipService.searchByShipType(ShipType.MILITARY))
+                .and(shipService.searchByProdDate(26192246400000L, 33134745600000L))
+                .and(shipService.searchByUse(false))
+                .and(shipService.searchBySpeed(0.1, 0.9))
+                .and(shipService.searchByCrewSize(10, 5000))
+                .and(shipService.searchByRating(0.5, 10.0));
+    }
+
+    @Benchmark
+    public Predicate composeAndTranslate() {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = criteriaBuilder.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+        return compose().toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,59 @@
+package com.space.service;
+
+import com.space.benchmark.BenchmarkData;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// lives in com.space.service to reach ShipRatings, which ShipService rates and date-checks every ship with
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShipServiceBenchmark {
+    private static final int SHIPS = 1024;
+
+    private List<Ship> ships;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ships = BenchmarkData.ships(SHIPS);
+    }
+
+    private Ship nextShip() {
+        next = (next + 1) & (SHIPS - 1);
+        return ships.get(next);
+    }
+
+    @Benchmark
+    public double rating() {
+        Ship ship = nextShip();
+        return ShipRatings.rating(ship.getSpeed(), ship.getUsed(), ship.getProdDate().getTime());
+    }
+
+    // the GregorianCalendar + BigDecimal formula the rating used to be computed with; compare with -prof gc
+    @Benchmark
+    public double referenceRating() {
+        Ship ship = nextShip();
+        return ShipRatings.referenceRating(ship.getSpeed(), ship.getUsed(), ship.getProdDate().getTime());
+    }
+
+    @Benchmark
+    public int prodYear() {
+        return ShipRatings.prodYear(nextShip().getProdDate().getTime());
+    }
+}
@@ -0,0 +1,414 @@
+package com.space.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// gzip or deflate response bodies, whichever Accept-Encoding prefers. The first minSize bytes are held back to
+// decide: a smaller body goes out as it is, with its Content-Length, a larger one is compressed as it is written
+// rather than buffered whole, so ship pages and exports start reaching the client before they are complete.
+public class CompressionFilter extends OncePerRequestFilter {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private boolean enabled = true;
+    private int minSize = 1024;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = Math.max(0, minSize);
+    }
+
+    // 1 (fastest) to 9 (smallest), -1 for zlib's default of 6
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    // a sync-flushing compressor, so a flush from the application pushes out everything written so far
+    public static DeflaterOutputStream compressor(String encoding, int level, OutputStream out) throws IOException {
+        if (encoding.equals(GZIP)) {
+            return new GZIPOutputStream(out, 8192, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        return new DeflaterOutputStream(out, new Deflater(level), 8192, true) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                def.end();
+            }
+        };
+    }
+
+    // an async request is finished by its last dispatch, which sees the same wrapped response
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponse compressing = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        if (compressing == null) {
+            String encoding = enabled && !"HEAD".equals(request.getMethod())
+                    ? negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) : null;
+            if (encoding == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            compressing = new CompressingResponse(response, encoding, minSize, level);
+            response = compressing;
+        }
+        filterChain.doFilter(request, response);
+        if (!isAsyncStarted(request)) {
+            compressing.finish();
+        }
+    }
+
+    // gzip or deflate by q-value, gzip on a tie or for *; null when neither is acceptable
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, q);
+            } else if (coding.equals(DEFLATE)) {
+                deflate = Math.max(deflate, q);
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    private static boolean compressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return !(type.startsWith("image/") || type.startsWith("audio/") || type.startsWith("video/")
+                || type.startsWith("application/zip") || type.startsWith("application/gzip"));
+    }
+
+    private static final class CompressingResponse extends HttpServletResponseWrapper {
+        private final String encoding;
+        private final int minSize;
+        private final int level;
+        // a Content-Length set by the application, held back until it is known whether the body is compressed
+        private long declaredLength = -1;
+        private boolean encoded;
+        private CompressingStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding, int minSize, int level) {
+            super(response);
+            this.encoding = encoding;
+            this.minSize = minSize;
+            this.level = level;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new CompressingStream(this);
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                stream = new CompressingStream(this);
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            }
+            if (stream == null || stream.decided()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (stream != null) {
+                stream.reset();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            declaredLength = -1;
+            encoded = false;
+            super.reset();
+            addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            declaredLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!intercept(name, value)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!intercept(name, value)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (!intercept(name, String.valueOf(value))) {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (!intercept(name, String.valueOf(value))) {
+                super.addIntHeader(name, value);
+            }
+        }
+
+        private boolean intercept(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                declaredLength = value == null ? -1 : Long.parseLong(value.trim());
+                return true;
+            }
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                encoded = value != null;
+            }
+            return false;
+        }
+
+        // whether the body will be compressed, or null while the buffered bytes cannot tell yet
+        private Boolean compress(int buffered) {
+            if (encoded || !compressible(getContentType())) {
+                return false;
+            }
+            if (declaredLength >= 0) {
+                return declaredLength >= minSize;
+            }
+            return buffered >= minSize ? Boolean.TRUE : null;
+        }
+
+        // length is the body size if known, -1 for a body still being written
+        private OutputStream open(boolean compress, long length) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (!compress) {
+                if (length >= 0) {
+                    response.setContentLengthLong(length);
+                }
+                return response.getOutputStream();
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            // the compressed bytes differ from the ones a strong tag was computed for
+            String etag = response.getHeader(HttpHeaders.ETAG);
+            if (etag != null && !etag.startsWith("W/")) {
+                response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+            }
+            return compressor(encoding, level, response.getOutputStream());
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+    }
+
+    private static final class CompressingStream extends ServletOutputStream {
+        private final CompressingResponse response;
+        private byte[] buffer;
+        private int count;
+        private OutputStream out;
+        private boolean finished;
+
+        CompressingStream(CompressingResponse response) {
+            this.response = response;
+            this.buffer = new byte[Math.max(1, response.minSize)];
+        }
+
+        boolean decided() {
+            return out != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (out == null && response.compress(count + 1) == null) {
+                buffer[count++] = (byte) b;
+                return;
+            }
+            decide(count + 1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null && response.compress(count + len) == null) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            decide(count + len);
+            out.write(b, off, len);
+        }
+
+        // a flush before the threshold keeps buffering; once past it, it pushes out what has been compressed so far
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        void reset() {
+            if (out == null) {
+                count = 0;
+            }
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (out == null) {
+                if (count == 0 && response.declaredLength < 0) {
+                    return;
+                }
+                long length = response.declaredLength >= 0 ? response.declaredLength : count;
+                out = response.open(Boolean.TRUE.equals(response.compress(count)), length);
+                out.write(buffer, 0, count);
+                buffer = null;
+            }
+            out.close();
+        }
+
+        private void decide(int size) throws IOException {
+            if (out == null) {
+                if (finished) {
+                    throw new IOException("Response body already finished");
+                }
+                Boolean compress = response.compress(size);
+                out = response.open(compress == null || compress, response.declaredLength);
+                out.write(buffer, 0, count);
+                buffer = null;
+            }
+        }
+
+        // a compressed body is written blocking; an uncompressed one reports what the container's stream reports
+        @Override
+        public boolean isReady() {
+            return !(out instanceof ServletOutputStream) || ((ServletOutputStream) out).isReady();
+        }
+
+        // one sync-flushed write may turn into several writes of compressed bytes, which non-blocking output does
+        // not allow, so a body switching to it before compression has begun goes out as it is
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (out == null) {
+                if (finished) {
+                    throw new IllegalStateException("Response body already finished");
+                }
+                try {
+                    out = response.open(false, response.declaredLength);
+                    out.write(buffer, 0, count);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                buffer = null;
+            }
+            if (!(out instanceof ServletOutputStream)) {
+                throw new IllegalStateException("Non-blocking output after the response body started compressing");
+            }
+            ((ServletOutputStream) out).setWriteListener(writeListener);
+        }
+    }
+}
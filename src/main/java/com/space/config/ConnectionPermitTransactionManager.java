@@ -0,0 +1,35 @@
+package com.space.config;
+
+import com.space.service.ShipExecutor;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+// Takes a ShipExecutor connection permit when a transaction begins, which is when Hibernate checks a connection
+// out of the pool, and returns it once the transaction has handed the connection back.
+public class ConnectionPermitTransactionManager extends JpaTransactionManager {
+    private final ShipExecutor executor;
+
+    public ConnectionPermitTransactionManager(ShipExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        executor.acquireConnection();
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            executor.releaseConnection();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            executor.releaseConnection();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.space.controller;
+
+import com.space.config.ConnectionPoolMetrics;
+import com.space.exceptions.NotFoundException;
+import com.space.model.Ship;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping(path = "/rest/metrics")
+public class MetricsController {
+    private final ObjectProvider<ConnectionPoolMetrics> poolMetrics;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public MetricsController(ObjectProvider<ConnectionPoolMetrics> poolMetrics, EntityManagerFactory entityManagerFactory) {
+        this.poolMetrics = poolMetrics;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @GetMapping(path = "/pool")
+    public ResponseEntity<Map<String, Object>> getPoolMetrics() {
+        ConnectionPoolMetrics metrics = poolMetrics.getIfAvailable();
+        if (metrics == null) {
+            throw new NotFoundException();
+        }
+        return new ResponseEntity<>(metrics.snapshot(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/cache")
+    public ResponseEntity<Map<String, Object>> getCacheMetrics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        CacheRegionStatistics shipRegion = statistics.getDomainDataRegionStatistics(Ship.class.getName());
+        result.put("shipHits", shipRegion.getHitCount());
+        result.put("shipMisses", shipRegion.getMissCount());
+        result.put("shipPuts", shipRegion.getPutCount());
+        result.put("shipEntries", shipRegion.getElementCountInMemory());
+        result.put("queryHits", statistics.getQueryCacheHitCount());
+        result.put("queryMisses", statistics.getQueryCacheMissCount());
+        result.put("queryPuts", statistics.getQueryCachePutCount());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
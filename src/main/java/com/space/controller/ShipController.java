@@ -1,113 +1,371 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.space.exceptions.BadRequestException;
+import com.space.model.ImportResult;
 import com.space.model.Ship;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
 import com.space.service.IShipService;
+import com.space.service.ShipExecutor;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-@RestController
+// a plain @Controller: every endpoint answers with a ResponseEntity, a ShipResponse or straight to the response,
+// and ShipResponseHandler could not see a ShipResponse behind @RestController's @ResponseBody
+@Controller
 @RequestMapping (path = "/rest")
 public class ShipController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv;charset=UTF-8";
+
     private final IShipService shipService;
+    private final ObjectMapper objectMapper;
+    private final ShipJsonCache jsonCache;
+    private final ShipExecutor executor;
 
     @Autowired
-    public ShipController(IShipService shipService) {
+    public ShipController(IShipService shipService, ObjectMapper objectMapper, ShipJsonCache jsonCache, ShipExecutor executor) {
         this.shipService=shipService;
+        this.objectMapper = objectMapper;
+        this.jsonCache = jsonCache;
+        this.executor = executor;
+    }
+
+    // the response, or with async.enabled a stage of it completed on the ShipExecutor pool, which frees the
+    // container thread while the database works
+    private ShipResponse respond(Supplier<ResponseEntity<?>> work) {
+        return executor.isEnabled() ? ShipResponse.later(executor.submit(work)) : ShipResponse.now(work.get());
+    }
+
+    // tags a list or count response with the fleet version when fleet.etag.enabled, and tells whether it matches
+    private boolean fleetNotModified(HttpHeaders headers, String accept, String ifNoneMatch) {
+        String version = shipService.getFleetVersion();
+        if (version == null) {
+            return false;
+        }
+        tag(headers, ShipETags.fleet(version, accept));
+        return ShipETags.matches(ifNoneMatch, headers.getETag());
+    }
+
+    // the tag depends on the format Accept selects, so the response varies by Accept, a 304 included
+    private static void tag(HttpHeaders headers, String etag) {
+        headers.setETag(etag);
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
     }
 
     @PostMapping(path = "/ships")
-    public ResponseEntity<Ship> createShip(@RequestBody Ship ship) {
-        Ship result= shipService.createShip(ship);;
-        return new ResponseEntity<>(result, HttpStatus.OK);
+    public ShipResponse createShip(@RequestBody Ship ship) {
+        return respond(() -> {
+            Ship result= shipService.createShip(ship);;
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        });
+    }
+
+    // a JSON array or newline-delimited ships, read one at a time straight from the request body
+    @PostMapping(path = "/ships/import", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResult> importShips(HttpServletRequest request) throws IOException {
+        try (MappingIterator<Ship> ships = objectMapper.readerFor(Ship.class).readValues(request.getInputStream())) {
+            return new ResponseEntity<>(shipService.importShips(ships), HttpStatus.OK);
+        } finally {
+            // batches committed before a failing one are in the table all the same
+            jsonCache.clear();
+        }
     }
 
     @PostMapping(path = "/ships/{id}")
-    public ResponseEntity<Ship> updateShip(@RequestBody Ship source, @PathVariable String id) {
+    public ShipResponse updateShip(@RequestBody Ship source, @PathVariable String id) {
         Long longId = shipService.auditId(id);
-        Ship result = shipService.updateShip(source, longId);;
-        return new ResponseEntity<>(result, HttpStatus.OK);
+        return respond(() -> {
+            Ship result = shipService.updateShip(source, longId);;
+            jsonCache.remove(longId);
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        });
     }
 
     @DeleteMapping(path = "/ships/{id}")
-    public ResponseEntity<?> deleteShip (@PathVariable String id) {
+    public ShipResponse deleteShip (@PathVariable String id) {
         Long longId = shipService.auditId(id);
-        shipService.deleteShip(longId);
-        return new ResponseEntity<>(HttpStatus.OK);
+        return respond(() -> {
+            shipService.deleteShip(longId);
+            jsonCache.remove(longId);
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
     }
 
+    // a matching If-None-Match is answered from the version alone, before the ship is loaded or serialized
     @GetMapping(path = "/ships/{id}")
-    public ResponseEntity<Ship> getShip(@PathVariable String id) {
+    public ShipResponse getShip(@PathVariable String id,
+                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Long longId = shipService.auditId(id);
-        Ship result = shipService.getShip(longId);;
-        return new ResponseEntity<>(result, HttpStatus.OK);
+        return respond(() -> {
+            HttpHeaders headers = new HttpHeaders();
+            if (ifNoneMatch != null) {
+                String etag = ShipETags.ship(longId, shipService.getShipVersion(longId), accept);
+                if (ShipETags.matches(ifNoneMatch, etag)) {
+                    tag(headers, etag);
+                    return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+                }
+            }
+            Ship result = shipService.getShip(longId);;
+            tag(headers, ShipETags.ship(result.getId(), result.getVersion(), accept));
+            return new ResponseEntity<>(jsonCache.isEnabled() ? jsonCache.object(result) : result, headers, HttpStatus.OK);
+        });
     }
 
     @GetMapping(value = "/ships")
-    @ResponseStatus(HttpStatus.OK)
-    public List<Ship> getAllShips(@RequestParam(value = "name", required = false) String name,
-                                  @RequestParam(value = "planet", required = false) String planet,
-                                  @RequestParam(value = "shipType", required = false) ShipType shipType,
-                                  @RequestParam(value = "after", required = false) Long after,
-                                  @RequestParam(value = "before", required = false) Long before,
-                                  @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-                                  @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-                                  @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-                                  @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-                                  @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-                                  @RequestParam(value = "minRating", required = false) Double minRating,
-                                  @RequestParam(value = "maxRating", required = false) Double maxRating,
-                                  @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
-                                  @RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
-                                  @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize) {
-
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(order.getFieldName()));
-
-        return shipService.getShipsList(
-                Specification.where(shipService.searchByName(name)
-                        .and(shipService.searchByPlanet(planet)))
-                        .and(shipService.searchByShipType(shipType))
-                        .and(shipService.searchByProdDate(after, before))
-                        .and(shipService.searchByUse(isUsed))
-                        .and(shipService.searchBySpeed(minSpeed, maxSpeed))
-                        .and(shipService.searchByCrewSize(minCrewSize, maxCrewSize))
-                        .and(shipService.searchByRating(minRating, maxRating)), pageable)
-                .getContent();
+    public ShipResponse getAllShips(@RequestParam(value = "name", required = false) String name,
+                                    @RequestParam(value = "planet", required = false) String planet,
+                                    @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                    @RequestParam(value = "after", required = false) Long after,
+                                    @RequestParam(value = "before", required = false) Long before,
+                                    @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                    @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                    @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                    @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                    @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                    @RequestParam(value = "minRating", required = false) Double minRating,
+                                    @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                    @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
+                                    @RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
+                                    @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
+                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        // taken before the query, so a write that commits meanwhile only makes the tag older than the content
+        HttpHeaders headers = new HttpHeaders();
+        if (fleetNotModified(headers, accept, ifNoneMatch)) {
+            return ShipResponse.now(new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED));
+        }
+
+        // id breaks ties so that offset pages and cursor slices agree on the order
+        Sort sort = order == ShipOrder.ID ? Sort.by("id") : Sort.by(order.getFieldName()).and(Sort.by("id"));
+
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+
+        Pageable pageable;
+        if (cursor != null) {
+            ShipCursor position = ShipCursor.decode(cursor, order);
+            filter.setSeek(position.getValue(), position.getId());
+            pageable = PageRequest.of(0, pageSize, sort);
+        } else {
+            pageable = PageRequest.of(pageNumber, pageSize, sort);
+        }
+
+        return respond(() -> {
+            // the response only carries the content, so a Slice saves the count query a Page would issue
+            Slice<Ship> ships = shipService.getShipsSlice(filter, pageable);
+
+            List<Ship> content = ships.getContent();
+            if (ships.hasNext()) {
+                headers.set(NEXT_CURSOR_HEADER, ShipCursor.after(content.get(content.size() - 1), order).encode());
+            }
+            return new ResponseEntity<>(jsonCache.isEnabled() ? jsonCache.array(content) : content, headers, HttpStatus.OK);
+        });
     }
 
 
     @GetMapping("/ships/count")
-    public ResponseEntity<Integer> getCount(@RequestParam(value = "name", required = false) String name,
-                                            @RequestParam(value = "planet", required = false) String planet,
-                                            @RequestParam(value = "shipType", required = false) ShipType shipType,
-                                            @RequestParam(value = "after", required = false) Long after,
-                                            @RequestParam(value = "before", required = false) Long before,
-                                            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-                                            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-                                            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-                                            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-                                            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-                                            @RequestParam(value = "minRating", required = false) Double minRating,
-                                            @RequestParam(value = "maxRating", required = false) Double maxRating) {
-
-        Specification<Ship> specification = Specification.where(shipService.searchByName(name)
+    public ShipResponse getCount(@RequestParam(value = "name", required = false) String name,
+                                 @RequestParam(value = "planet", required = false) String planet,
+                                 @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                 @RequestParam(value = "after", required = false) Long after,
+                                 @RequestParam(value = "before", required = false) Long before,
+                                 @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                 @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                 @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                 @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                 @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                 @RequestParam(value = "minRating", required = false) Double minRating,
+                                 @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        HttpHeaders headers = new HttpHeaders();
+        if (fleetNotModified(headers, accept, ifNoneMatch)) {
+            return ShipResponse.now(new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED));
+        }
+
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+
+        return respond(() -> new ResponseEntity<>(shipService.getShipsCount(filter), headers, HttpStatus.OK));
+    }
+    // one set-based UPDATE over every ship matching the filters, rating is recomputed in SQL; returns the number updated
+    @PostMapping("/ships/bulk")
+    public ResponseEntity<Integer> updateShips(@RequestBody Ship source,
+                                               @RequestParam(value = "name", required = false) String name,
+                                               @RequestParam(value = "planet", required = false) String planet,
+                                               @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                               @RequestParam(value = "after", required = false) Long after,
+                                               @RequestParam(value = "before", required = false) Long before,
+                                               @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                               @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                               @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                               @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                               @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                               @RequestParam(value = "minRating", required = false) Double minRating,
+                                               @RequestParam(value = "maxRating", required = false) Double maxRating) {
+
+        Specification<Ship> specification = requiredFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+
+        int updated = shipService.updateShips(specification, source);
+        jsonCache.clear();
+        return new ResponseEntity<>(updated, HttpStatus.OK);
+    }
+
+    // one set-based DELETE over every ship matching the filters; returns the number deleted
+    @DeleteMapping("/ships/bulk")
+    public ResponseEntity<Integer> deleteShips(@RequestParam(value = "name", required = false) String name,
+                                               @RequestParam(value = "planet", required = false) String planet,
+                                               @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                               @RequestParam(value = "after", required = false) Long after,
+                                               @RequestParam(value = "before", required = false) Long before,
+                                               @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                               @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                               @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                               @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                               @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                               @RequestParam(value = "minRating", required = false) Double minRating,
+                                               @RequestParam(value = "maxRating", required = false) Double maxRating) {
+
+        Specification<Ship> specification = requiredFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+
+        int deleted = shipService.deleteShips(specification);
+        jsonCache.clear();
+        return new ResponseEntity<>(deleted, HttpStatus.OK);
+    }
+
+    // every matching ship, written row by row as it is read from the database cursor
+    @GetMapping("/ships/export")
+    public void exportShips(@RequestParam(value = "name", required = false) String name,
+                            @RequestParam(value = "planet", required = false) String planet,
+                            @RequestParam(value = "shipType", required = false) ShipType shipType,
+                            @RequestParam(value = "after", required = false) Long after,
+                            @RequestParam(value = "before", required = false) Long before,
+                            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                            @RequestParam(value = "minRating", required = false) Double minRating,
+                            @RequestParam(value = "maxRating", required = false) Double maxRating,
+                            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+
+        Specification<Ship> specification = filter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+
+        if ("ndjson".equalsIgnoreCase(format)) {
+            response.setContentType(APPLICATION_NDJSON_VALUE);
+            // one generator for the whole export, whose buffer reaches the response only when full: a flush per row
+            // would also be a deflate block and a network write per row under CompressionFilter
+            ObjectWriter writer = objectMapper.writerFor(Ship.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            OutputStream out = response.getOutputStream();
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                    .setRootValueSeparator(null);
+            export(specification, ship -> {
+                writer.writeValue(generator, ship);
+                generator.writeRaw('\n');
+            });
+            generator.close();
+            out.flush();
+        } else if ("csv".equalsIgnoreCase(format)) {
+            response.setContentType(TEXT_CSV_VALUE);
+            Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+            ShipCsv.writeHeader(out);
+            export(specification, ship -> ShipCsv.writeRow(out, ship));
+            out.flush();
+        } else {
+            throw new BadRequestException("format must be ndjson or csv");
+        }
+    }
+
+    private interface RowWriter {
+        void write(Ship ship) throws IOException;
+    }
+
+    private void export(Specification<Ship> specification, RowWriter rows) throws IOException {
+        try {
+            shipService.exportShips(specification, ship -> {
+                try {
+                    rows.write(ship);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // @Version turns a concurrent update of the same ship into a failed commit; the caller may reload and retry
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> conflict() {
+        return new ResponseEntity<>(HttpStatus.CONFLICT);
+    }
+
+    // a bulk statement without any filter would touch the whole fleet, which is never what a caller means
+    private Specification<Ship> requiredFilter(String name, String planet, ShipType shipType, Long after, Long before,
+                                               Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                               Integer maxCrewSize, Double minRating, Double maxRating) {
+        if (Stream.of(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating).allMatch(Objects::isNull)) {
+            throw new BadRequestException("at least one filter is required");
+        }
+        return filter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    private Specification<Ship> filter(String name, String planet, ShipType shipType, Long after, Long before,
+                                       Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                       Integer maxCrewSize, Double minRating, Double maxRating) {
+        return Specification.where(shipService.searchByName(name))
                 .and(shipService.searchByPlanet(planet))
                 .and(shipService.searchByShipType(shipType))
                 .and(shipService.searchByProdDate(after, before))
                 .and(shipService.searchByUse(isUsed))
                 .and(shipService.searchBySpeed(minSpeed, maxSpeed))
                 .and(shipService.searchByCrewSize(minCrewSize, maxCrewSize))
-                .and(shipService.searchByRating(minRating, maxRating)));
-
-        return new ResponseEntity<>(shipService.getShipsCount(specification), HttpStatus.OK);
+                .and(shipService.searchByRating(minRating, maxRating));
     }
 }
@@ -0,0 +1,60 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// RFC 4180 rows for GET /rest/ships/export?format=csv, prodDate in epoch millis like the JSON representation
+final class ShipCsv {
+    static final String HEADER = "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating";
+
+    private ShipCsv() {
+    }
+
+    static void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    // every column but id may be NULL in the table; such a field is left empty
+    static void writeRow(Writer writer, Ship ship) throws IOException {
+        writer.write(Long.toString(ship.getId()));
+        writer.write(',');
+        writeText(writer, ship.getName());
+        writer.write(',');
+        writeText(writer, ship.getPlanet());
+        writer.write(',');
+        writeValue(writer, ship.getShipType() == null ? null : ship.getShipType().name());
+        writer.write(',');
+        writeValue(writer, ship.getProdDate() == null ? null : ship.getProdDate().getTime());
+        writer.write(',');
+        writeValue(writer, ship.getUsed());
+        writer.write(',');
+        writeValue(writer, ship.getSpeed());
+        writer.write(',');
+        writeValue(writer, ship.getCrewSize());
+        writer.write(',');
+        writeValue(writer, ship.getRating());
+        writer.write("\r\n");
+    }
+
+    private static void writeValue(Writer writer, Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private static void writeText(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
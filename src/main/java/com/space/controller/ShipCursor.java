@@ -0,0 +1,79 @@
+package com.space.controller;
+
+import com.space.exceptions.BadRequestException;
+import com.space.model.Ship;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+public class ShipCursor {
+    private final ShipOrder order;
+    private final Object value;
+    private final long id;
+
+    private ShipCursor(ShipOrder order, Object value, long id) {
+        this.order = order;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static ShipCursor after(Ship ship, ShipOrder order) {
+        switch (order) {
+            case SPEED:
+                return new ShipCursor(order, ship.getSpeed(), ship.getId());
+            case DATE:
+                return new ShipCursor(order, ship.getProdDate(), ship.getId());
+            case RATING:
+                return new ShipCursor(order, ship.getRating(), ship.getId());
+            default:
+                return new ShipCursor(order, null, ship.getId());
+        }
+    }
+
+    public static ShipCursor decode(String token, ShipOrder order) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", -1);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException();
+        }
+
+        if (parts.length != 3 || !parts[0].equals(order.name())) {
+            throw new BadRequestException();
+        }
+
+        try {
+            long id = Long.parseLong(parts[2]);
+            switch (order) {
+                case SPEED:
+                case RATING:
+                    return new ShipCursor(order, Double.parseDouble(parts[1]), id);
+                case DATE:
+                    return new ShipCursor(order, new Date(Long.parseLong(parts[1])), id);
+                default:
+                    return new ShipCursor(order, null, id);
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    public String encode() {
+        String rawValue = value instanceof Date ? String.valueOf(((Date) value).getTime()) : (value == null ? "" : value.toString());
+        String raw = order.name() + ":" + rawValue + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
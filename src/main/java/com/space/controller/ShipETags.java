@@ -0,0 +1,71 @@
+package com.space.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Strong entity tags: one per ship version for GET /rest/ships/{id}, one per fleet version for list and count.
+// A tagged response is JSON, CBOR or Smile depending on Accept, so a binary body gets a tag of its own and the
+// tag is computed for the representation before If-None-Match is compared with it.
+final class ShipETags {
+    static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+    static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    // in the order WebConfig registers their converters
+    private static final MediaType[] PRODUCIBLE = {MediaType.APPLICATION_JSON, APPLICATION_CBOR, APPLICATION_SMILE};
+
+    private ShipETags() {
+    }
+
+    static String ship(long id, long version, String accept) {
+        return "\"" + id + "." + version + suffix(accept) + "\"";
+    }
+
+    static String fleet(String version, String accept) {
+        return "\"fleet-" + version + suffix(accept) + "\"";
+    }
+
+    // If-None-Match is "*" or a comma-separated list of tags; GET compares them weakly, so a W/ prefix is ignored
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the format content negotiation will pick, found the way Spring MVC picks it: every producible type compatible
+    // with an accepted one, with that one's quality, sorted by specificity and quality; JSON when Accept is missing
+    private static String suffix(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        List<MediaType> candidates = new ArrayList<>();
+        try {
+            for (MediaType requested : MediaType.parseMediaTypes(accept)) {
+                for (MediaType producible : PRODUCIBLE) {
+                    if (requested.isCompatibleWith(producible)) {
+                        candidates.add(producible.copyQualityValue(requested));
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MediaType.sortBySpecificityAndQuality(candidates);
+        if (candidates.isEmpty() || candidates.get(0).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return "";
+        }
+        return candidates.get(0).isCompatibleWith(APPLICATION_CBOR) ? "+cbor" : "+smile";
+    }
+}
@@ -0,0 +1,61 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// A response body of one ship or a list of them, sent as JSON spliced together from ShipJsonCache fragments.
+// The fragments are looked up when the JSON converter first asks for them; the binary formats serialize the
+// ships themselves.
+public final class ShipJson {
+    private final Object value;
+    private final ShipJsonCache cache;
+    private List<byte[]> fragments;
+
+    ShipJson(Ship ship, ShipJsonCache cache) {
+        this.value = ship;
+        this.cache = cache;
+    }
+
+    ShipJson(List<Ship> ships, ShipJsonCache cache) {
+        this.value = ships;
+        this.cache = cache;
+    }
+
+    // the Ship or List<Ship>
+    public Object getValue() {
+        return value;
+    }
+
+    public boolean isArray() {
+        return value instanceof List;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<byte[]> getFragments() {
+        if (fragments == null) {
+            if (isArray()) {
+                List<Ship> ships = (List<Ship>) value;
+                fragments = new ArrayList<>(ships.size());
+                for (Ship ship : ships) {
+                    fragments.add(cache.fragment(ship));
+                }
+            } else {
+                fragments = Collections.singletonList(cache.fragment((Ship) value));
+            }
+        }
+        return fragments;
+    }
+
+    // the exact size of the body, so it can be sent with a Content-Length instead of chunked
+    public int length() {
+        List<byte[]> parts = getFragments();
+        int length = isArray() ? Math.max(2, 1 + parts.size()) : 0;
+        for (byte[] fragment : parts) {
+            length += fragment.length;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,85 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.space.model.Ship;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Each ship's JSON as UTF-8 bytes, written by the same ObjectMapper the converter uses and reused for as long as
+// the ship keeps its version. A changed ship simply misses; update and delete also drop the entry to free it.
+// Past maxShips an arbitrary entry makes room.
+@Component
+public class ShipJsonCache {
+    private final ObjectWriter writer;
+    private final boolean enabled;
+    private final int maxShips;
+    private final ConcurrentHashMap<Long, Fragment> fragments = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ShipJsonCache(ObjectMapper objectMapper,
+                         @Value("${json.cache.enabled:true}") boolean enabled,
+                         @Value("${json.cache.maxShips:10000}") int maxShips) {
+        this.writer = objectMapper.writerFor(Ship.class);
+        this.enabled = enabled;
+        this.maxShips = maxShips;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ShipJson object(Ship ship) {
+        return new ShipJson(ship, this);
+    }
+
+    public ShipJson array(List<Ship> ships) {
+        return new ShipJson(ships, this);
+    }
+
+    public void remove(long id) {
+        fragments.remove(id);
+    }
+
+    public void clear() {
+        fragments.clear();
+    }
+
+    byte[] fragment(Ship ship) {
+        Fragment cached = fragments.get(ship.getId());
+        if (cached != null && cached.version == ship.getVersion()) {
+            return cached.json;
+        }
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(ship);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (cached == null && fragments.size() >= maxShips) {
+            Iterator<Long> ids = fragments.keySet().iterator();
+            if (ids.hasNext()) {
+                fragments.remove(ids.next());
+            }
+        }
+        fragments.put(ship.getId(), new Fragment(ship.getVersion(), json));
+        return json;
+    }
+
+    private static final class Fragment {
+        final long version;
+        final byte[] json;
+
+        Fragment(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+
+import java.io.IOException;
+import java.util.Date;
+
+// Ship to and from JSON by hand, streaming, with no bean introspection: the fields in declaration order as the
+// FIELD visibility used to write them, version left out, prodDate as epoch millis. Reading takes the scalar
+// tokens directly and hands anything else (quoted numbers, date strings, unknown enum names) to Jackson's own
+// scalar deserializers, so coercions and error messages stay as they were.
+public final class ShipJsonCodec {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString PLANET = new SerializedString("planet");
+    private static final SerializedString SHIP_TYPE = new SerializedString("shipType");
+    private static final SerializedString PROD_DATE = new SerializedString("prodDate");
+    private static final SerializedString IS_USED = new SerializedString("isUsed");
+    private static final SerializedString SPEED = new SerializedString("speed");
+    private static final SerializedString CREW_SIZE = new SerializedString("crewSize");
+    private static final SerializedString RATING = new SerializedString("rating");
+
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+    private static final SerializedString[] SHIP_TYPE_NAMES = new SerializedString[SHIP_TYPES.length];
+
+    static {
+        for (ShipType shipType : SHIP_TYPES) {
+            SHIP_TYPE_NAMES[shipType.ordinal()] = new SerializedString(shipType.name());
+        }
+    }
+
+    private ShipJsonCodec() {
+    }
+
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("ShipJsonCodec");
+        module.addSerializer(Ship.class, new Serializer());
+        module.addDeserializer(Ship.class, new Deserializer());
+        // a pre-rendered body negotiated to CBOR or Smile falls back to serializing its ships
+        module.addSerializer(ShipJson.class, new StdSerializer<ShipJson>(ShipJson.class) {
+            @Override
+            public void serialize(ShipJson json, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                provider.defaultSerializeValue(json.getValue(), generator);
+            }
+        });
+        return module;
+    }
+
+    public static final class Serializer extends StdSerializer<Ship> {
+
+        public Serializer() {
+            super(Ship.class);
+        }
+
+        @Override
+        public void serialize(Ship ship, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(ship);
+            generator.writeFieldName(ID);
+            generator.writeNumber(ship.getId());
+            generator.writeFieldName(NAME);
+            generator.writeString(ship.getName());
+            generator.writeFieldName(PLANET);
+            generator.writeString(ship.getPlanet());
+            generator.writeFieldName(SHIP_TYPE);
+            if (ship.getShipType() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(SHIP_TYPE_NAMES[ship.getShipType().ordinal()]);
+            }
+            generator.writeFieldName(PROD_DATE);
+            if (ship.getProdDate() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(ship.getProdDate().getTime());
+            }
+            generator.writeFieldName(IS_USED);
+            if (ship.getUsed() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeBoolean(ship.getUsed());
+            }
+            generator.writeFieldName(SPEED);
+            if (ship.getSpeed() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(ship.getSpeed());
+            }
+            generator.writeFieldName(CREW_SIZE);
+            if (ship.getCrewSize() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(ship.getCrewSize());
+            }
+            generator.writeFieldName(RATING);
+            if (ship.getRating() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(ship.getRating());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<Ship> {
+
+        public Deserializer() {
+            super(Ship.class);
+        }
+
+        @Override
+        public Ship deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                return (Ship) context.handleUnexpectedToken(Ship.class, parser);
+            }
+
+            Ship ship = new Ship();
+            for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                String field = parser.getCurrentName();
+                token = parser.nextToken();
+                if (token == JsonToken.VALUE_NULL) {
+                    clear(ship, field);
+                    continue;
+                }
+                switch (field) {
+                    case "id":
+                        ship.setId(token == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : context.readValue(parser, Long.class));
+                        break;
+                    case "name":
+                        ship.setName(token == JsonToken.VALUE_STRING ? parser.getText() : context.readValue(parser, String.class));
+                        break;
+                    case "planet":
+                        ship.setPlanet(token == JsonToken.VALUE_STRING ? parser.getText() : context.readValue(parser, String.class));
+                        break;
+                    case "shipType":
+                        ship.setShipType(shipType(parser, context, token));
+                        break;
+                    case "prodDate":
+                        ship.setProdDate(token == JsonToken.VALUE_NUMBER_INT ? new Date(parser.getLongValue()) : context.readValue(parser, Date.class));
+                        break;
+                    case "isUsed":
+                        ship.setUsed(token == JsonToken.VALUE_TRUE ? Boolean.TRUE : token == JsonToken.VALUE_FALSE ? Boolean.FALSE
+                                : context.readValue(parser, Boolean.class));
+                        break;
+                    case "speed":
+                        ship.setSpeed(token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT
+                                ? parser.getDoubleValue() : context.readValue(parser, Double.class));
+                        break;
+                    case "crewSize":
+                        ship.setCrewSize(token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT
+                                ? parser.getIntValue() : context.readValue(parser, Integer.class));
+                        break;
+                    case "rating":
+                        ship.setRating(token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT
+                                ? parser.getDoubleValue() : context.readValue(parser, Double.class));
+                        break;
+                    case "version":
+                        // @JsonIgnore: never taken from a request
+                        parser.skipChildren();
+                        break;
+                    default:
+                        if (context.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)) {
+                            context.handleUnknownProperty(parser, this, ship, field);
+                        } else {
+                            parser.skipChildren();
+                        }
+                }
+            }
+            return ship;
+        }
+
+        // a null clears the field, as the field-visibility bean deserializer did; id is a primitive and becomes 0
+        private static void clear(Ship ship, String field) {
+            switch (field) {
+                case "id":
+                    ship.setId(0);
+                    break;
+                case "name":
+                    ship.setName(null);
+                    break;
+                case "planet":
+                    ship.setPlanet(null);
+                    break;
+                case "shipType":
+                    ship.setShipType(null);
+                    break;
+                case "prodDate":
+                    ship.setProdDate(null);
+                    break;
+                case "isUsed":
+                    ship.setUsed(null);
+                    break;
+                case "speed":
+                    ship.setSpeed(null);
+                    break;
+                case "crewSize":
+                    ship.setCrewSize(null);
+                    break;
+                case "rating":
+                    ship.setRating(null);
+                    break;
+                default:
+            }
+        }
+
+        private static ShipType shipType(JsonParser parser, DeserializationContext context, JsonToken token) throws IOException {
+            if (token == JsonToken.VALUE_STRING) {
+                String name = parser.getText();
+                for (ShipType shipType : SHIP_TYPES) {
+                    if (shipType.name().equals(name)) {
+                        return shipType;
+                    }
+                }
+            }
+            return context.readValue(parser, ShipType.class);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.space.controller;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Writes a ShipJson as it is: the fragments, with brackets and commas between them for an array
+public class ShipJsonHttpMessageConverter extends AbstractHttpMessageConverter<ShipJson> {
+
+    public ShipJsonHttpMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ShipJson.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ShipJson readInternal(Class<? extends ShipJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ShipJson is write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ShipJson json, MediaType contentType) {
+        return (long) json.length();
+    }
+
+    @Override
+    protected void writeInternal(ShipJson json, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        if (json.isArray()) {
+            out.write('[');
+        }
+        boolean first = true;
+        for (byte[] fragment : json.getFragments()) {
+            if (!first) {
+                out.write(',');
+            }
+            out.write(fragment);
+            first = false;
+        }
+        if (json.isArray()) {
+            out.write(']');
+        }
+    }
+}
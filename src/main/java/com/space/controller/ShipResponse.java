@@ -0,0 +1,34 @@
+package com.space.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletionStage;
+
+// What a ShipController endpoint that may run on the ShipExecutor pool answers with: the response itself, or with
+// async.enabled a stage completing with it. ShipResponseHandler writes the first at once and only sends the second
+// through an async dispatch.
+public final class ShipResponse {
+    private final ResponseEntity<?> entity;
+    private final CompletionStage<ShipResponse> stage;
+
+    private ShipResponse(ResponseEntity<?> entity, CompletionStage<ShipResponse> stage) {
+        this.entity = entity;
+        this.stage = stage;
+    }
+
+    static ShipResponse now(ResponseEntity<?> entity) {
+        return new ShipResponse(entity, null);
+    }
+
+    static ShipResponse later(CompletionStage<? extends ResponseEntity<?>> stage) {
+        return new ShipResponse(null, stage.thenApply(ShipResponse::now));
+    }
+
+    ResponseEntity<?> getEntity() {
+        return entity;
+    }
+
+    CompletionStage<ShipResponse> getStage() {
+        return stage;
+    }
+}
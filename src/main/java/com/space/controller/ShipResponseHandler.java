@@ -0,0 +1,63 @@
+package com.space.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.DeferredResultMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.HttpEntityMethodProcessor;
+
+import java.lang.reflect.Type;
+import java.util.function.Supplier;
+
+// Writes a ShipResponse: its ResponseEntity as HttpEntityMethodProcessor writes any other, its stage through the
+// async dispatch Spring MVC gives a CompletionStage. The stage completes with a ShipResponse again, so the
+// dispatched result comes back here. Registered with addReturnValueHandlers, which places it after the built-in
+// handlers; ShipController is a plain @Controller so that the @ResponseBody handler does not claim it first.
+public class ShipResponseHandler implements HandlerMethodReturnValueHandler {
+    private static final Type RESPONSE_ENTITY = ResolvableType.forClassWithGenerics(ResponseEntity.class, Object.class).getType();
+
+    private final Supplier<HttpEntityMethodProcessor> entities;
+    private final HandlerMethodReturnValueHandler stages = new DeferredResultMethodReturnValueHandler();
+
+    // a supplier, since the processor is only built together with the handler list this one is added to
+    public ShipResponseHandler(Supplier<HttpEntityMethodProcessor> entities) {
+        this.entities = entities;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return ShipResponse.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        ShipResponse response = (ShipResponse) returnValue;
+        if (response.getStage() != null) {
+            stages.handleReturnValue(response.getStage(), returnType, mavContainer, webRequest);
+        } else {
+            entities.get().handleReturnValue(response.getEntity(), new Entity(returnType), mavContainer, webRequest);
+        }
+    }
+
+    // the endpoint's return type seen as ResponseEntity<Object>, which HttpEntityMethodProcessor resolves the body
+    // type from when there is no body to look at
+    private static class Entity extends MethodParameter {
+        Entity(MethodParameter returnType) {
+            super(returnType);
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return ResponseEntity.class;
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return RESPONSE_ENTITY;
+        }
+    }
+}
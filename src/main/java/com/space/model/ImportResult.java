@@ -0,0 +1,50 @@
+package com.space.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(long row, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    public long getImported() {
+        return imported;
+    }
+    public long getFailed() {
+        return failed;
+    }
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public static class RowError {
+        private long row;
+        private String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+        public String getMessage() {
+            return message;
+        }
+    }
+}
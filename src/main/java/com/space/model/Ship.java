@@ -1,10 +1,16 @@
 package com.space.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.Date;
 
 @Entity
 @Table(name = "ship")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Ship {
     @Id
     @Column(name = "id")
@@ -36,6 +42,12 @@ public class Ship {
     @Column(name = "rating")
     private Double rating;
 
+    // bumped on every update, bulk updates included; not part of the JSON, clients see it as the ETag
+    @Version
+    @Column(name = "version")
+    @JsonIgnore
+    private long version;
+
     public long getId() {
         return id;
     }
@@ -59,6 +71,9 @@ public class Ship {
         return crewSize;
     }
     public Double getRating() { return rating; }
+    public long getVersion() {
+        return version;
+    }
 
     public void setId(long id) {
         this.id = id;
@@ -87,6 +102,9 @@ public class Ship {
     public void setRating(Double rating) {
         this.rating = rating;
     }
+    public void setVersion(long version) {
+        this.version = version;
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,88 @@
+package com.space.model;
+
+import java.util.Date;
+
+// the query parameters of GET /rest/ships and /rest/ships/count, plus an optional keyset position
+public class ShipFilter {
+    private final String name;
+    private final String planet;
+    private final ShipType shipType;
+    private final Long after;
+    private final Long before;
+    private final Boolean isUsed;
+    private final Double minSpeed;
+    private final Double maxSpeed;
+    private final Integer minCrewSize;
+    private final Integer maxCrewSize;
+    private final Double minRating;
+    private final Double maxRating;
+
+    private Object seekValue;
+    private Long seekId;
+
+    public ShipFilter(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                      Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                      Double minRating, Double maxRating) {
+        this.name = name;
+        this.planet = planet;
+        this.shipType = shipType;
+        this.after = after;
+        this.before = before;
+        this.isUsed = isUsed;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minCrewSize = minCrewSize;
+        this.maxCrewSize = maxCrewSize;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+    }
+
+    // only ships after (value, id) in the order of the first sort property and then id; a null value means id order
+    public void setSeek(Object value, Long id) {
+        this.seekValue = value;
+        this.seekId = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+    public String getPlanet() {
+        return planet;
+    }
+    public ShipType getShipType() {
+        return shipType;
+    }
+    public Date getAfter() {
+        return after == null ? null : new Date(after);
+    }
+    public Date getBefore() {
+        return before == null ? null : new Date(before);
+    }
+    public Boolean getUsed() {
+        return isUsed;
+    }
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+    public Double getMinRating() {
+        return minRating;
+    }
+    public Double getMaxRating() {
+        return maxRating;
+    }
+    public Object getSeekValue() {
+        return seekValue;
+    }
+    public Long getSeekId() {
+        return seekId;
+    }
+}
@@ -2,12 +2,45 @@ package com.space.repository;
 
 import com.space.model.Ship;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 @Repository
-public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship> {
+public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship>, ShipRepositoryCustom {
     List<Ship> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Page<Ship> findAll(Specification<Ship> specification, Pageable pageable);
+
+    @Query("select s.id, s.name, s.planet from Ship s")
+    List<Object[]> findAllSearchTerms();
+
+    @Query("select s.id, s.shipType, s.isUsed from Ship s")
+    List<Object[]> findAllFlags();
+
+    @Query("select s.id, s.name, s.planet, s.shipType, s.prodDate, s.isUsed, s.speed, s.crewSize, s.rating, s.version from Ship s")
+    List<Object[]> findAllColumns();
+
+    @Query("select s.version from Ship s where s.id = :id")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Ship s where s.id = :id")
+    int deleteShipById(@Param("id") Long id);
 }
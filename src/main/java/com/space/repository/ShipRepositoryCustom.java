@@ -0,0 +1,9 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+
+import java.util.List;
+
+public interface ShipRepositoryCustom {
+    int insertAll(List<Ship> ships);
+}
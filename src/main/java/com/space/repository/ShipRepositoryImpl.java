@@ -0,0 +1,37 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.util.List;
+
+public class ShipRepositoryImpl implements ShipRepositoryCustom {
+    private static final String INSERT = "INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ShipRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // one JDBC batch; with rewriteBatchedStatements Connector/J sends it as multi-row INSERTs
+    @Override
+    public int insertAll(List<Ship> ships) {
+        jdbcTemplate.batchUpdate(INSERT, ships, ships.size(), (statement, ship) -> {
+            statement.setString(1, ship.getName());
+            statement.setString(2, ship.getPlanet());
+            statement.setString(3, ship.getShipType().name());
+            statement.setDate(4, new Date(ship.getProdDate().getTime()));
+            statement.setBoolean(5, ship.getUsed());
+            statement.setDouble(6, ship.getSpeed());
+            statement.setInt(7, ship.getCrewSize());
+            statement.setDouble(8, ship.getRating());
+        });
+        return ships.size();
+    }
+}
@@ -1,19 +1,30 @@
 package com.space.service;
 
+import com.space.model.ImportResult;
 import com.space.model.Ship;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Iterator;
+import java.util.function.Consumer;
+
 public interface IShipService {
     Ship createShip(Ship ship);
+    ImportResult importShips(Iterator<Ship> ships);
     Ship getShip(Long id);
+    long getShipVersion(Long id);
+    String getFleetVersion();
     Ship updateShip(Ship ship, Long id);
     void deleteShip(Long id);
+    int updateShips(Specification<Ship> specification, Ship source);
+    int deleteShips(Specification<Ship> specification);
     Long auditId(String id);
-    Page<Ship> getShipsList(Specification<Ship> specification, Pageable sortedBy);
-    Integer getShipsCount(Specification<Ship> specification);
+    Slice<Ship> getShipsSlice(ShipFilter filter, Pageable sortedBy);
+    Integer getShipsCount(ShipFilter filter);
+    void exportShips(Specification<Ship> specification, Consumer<Ship> consumer);
 
     Specification<Ship> searchByName(String name);
     Specification<Ship> searchByPlanet(String planet);
@@ -0,0 +1,156 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Compressed bitmaps of ship ids per shipType and for isUsed, so counts over those two filters and their
+// intersection with other id sets need no SQL. Ids must fit in an int, which ShipService checks before commit.
+// Only writes through this instance reach the bitmaps, so it is meant for a single instance owning the table.
+@Component
+public class ShipBitmapIndex {
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap used = new RoaringBitmap();
+    private final RoaringBitmap[] byType = new RoaringBitmap[SHIP_TYPES.length];
+    private boolean loaded;
+
+    @Autowired
+    public ShipBitmapIndex(ShipRepository shipRepository, @Value("${search.bitmap.enabled:false}") boolean enabled) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new RoaringBitmap();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // null leaves that filter out
+    public int count(ShipType shipType, Boolean isUsed) {
+        readLoaded();
+        try {
+            RoaringBitmap base = shipType == null ? all : byType[shipType.ordinal()];
+            if (isUsed == null) {
+                return base.getCardinality();
+            }
+            int usedCount = RoaringBitmap.andCardinality(base, used);
+            return isUsed ? usedCount : base.getCardinality() - usedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // a copy the caller may intersect further
+    public RoaringBitmap ids(ShipType shipType, Boolean isUsed) {
+        readLoaded();
+        try {
+            RoaringBitmap base = shipType == null ? all : byType[shipType.ordinal()];
+            if (isUsed == null) {
+                return base.clone();
+            }
+            return isUsed ? RoaringBitmap.and(base, used) : RoaringBitmap.andNot(base, used);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Ship ship) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                add(Math.toIntExact(ship.getId()), ship.getShipType(), ship.getUsed());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            // a larger id was never let in
+            if (loaded && id <= Integer.MAX_VALUE) {
+                clear((int) id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            all.clear();
+            used.clear();
+            for (RoaringBitmap type : byType) {
+                type.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // returns holding the read lock over loaded bitmaps: the flag is checked under the lock, and a load keeps the
+    // lock it downgrades to, so an invalidate() cannot clear the bitmaps between the check and the read
+    private void readLoaded() {
+        lock.readLock().lock();
+        if (loaded) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        for (Object[] row : shipRepository.findAllFlags()) {
+            add(Math.toIntExact((Long) row[0]), (ShipType) row[1], (Boolean) row[2]);
+        }
+        // IDENTITY ids are mostly consecutive, so run containers store them in a few bytes per range
+        all.runOptimize();
+        used.runOptimize();
+        for (RoaringBitmap type : byType) {
+            type.runOptimize();
+        }
+        loaded = true;
+    }
+
+    private void add(int id, ShipType shipType, boolean isUsed) {
+        clear(id);
+        all.add(id);
+        byType[shipType.ordinal()].add(id);
+        if (isUsed) {
+            used.add(id);
+        }
+    }
+
+    private void clear(int id) {
+        all.remove(id);
+        used.remove(id);
+        for (RoaringBitmap type : byType) {
+            type.remove(id);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.space.service;
+
+import com.space.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// The pool ShipController hands its ShipService calls to when async.enabled is set, so a request waiting on the
+// database holds one of these threads rather than a servlet container thread. Both the threads and the queue
+// are bounded: a call that finds them full is turned away with 503 instead of piling up. With
+// async.virtualThreads every call gets a virtual thread of its own instead, and what bounds them is a permit out
+// of db.pool.maxSize, taken by the transaction manager for as long as a transaction holds a connection. A call
+// answered without one takes none; one that waits longer than db.pool.connectionTimeoutMs for it gets the 503.
+@Component
+public class ShipExecutor implements DisposableBean {
+    private final boolean enabled;
+    private final ExecutorService pool;
+    private final Semaphore connections;
+    private final long connectionTimeoutMs;
+
+    @Autowired
+    public ShipExecutor(@Value("${async.enabled:false}") boolean enabled,
+                        @Value("${async.virtualThreads:false}") boolean virtualThreads,
+                        @Value("${async.poolSize:20}") int poolSize,
+                        @Value("${async.queueCapacity:200}") int queueCapacity,
+                        @Value("${db.pool.maxSize:20}") int connections,
+                        @Value("${db.pool.connectionTimeoutMs:30000}") long connectionTimeoutMs) {
+        this.enabled = enabled;
+        this.connections = enabled && virtualThreads ? new Semaphore(Math.max(1, connections), true) : null;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        if (!enabled) {
+            this.pool = null;
+        } else if (virtualThreads) {
+            this.pool = virtualThreadPerTask();
+        } else {
+            this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threads(), new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor(), looked up at run time so that the class still builds for Java 8
+    private static ExecutorService virtualThreadPerTask() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("async.virtualThreads needs Java 21 or later", e);
+        }
+    }
+
+    private static ThreadFactory threads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "ship-service-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, pool);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException(connections == null ? "ship service queue is full"
+                    : "ship service is shutting down");
+        }
+    }
+
+    // blocks the calling thread, a virtual one included, until a connection is free; does nothing unless
+    // async.virtualThreads is set
+    public void acquireConnection() {
+        if (connections == null) {
+            return;
+        }
+        try {
+            if (!connections.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("no database connection within " + connectionTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("interrupted while waiting for a database connection");
+        }
+    }
+
+    public void releaseConnection() {
+        if (connections != null) {
+            connections.release();
+        }
+    }
+}
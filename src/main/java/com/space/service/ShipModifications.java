@@ -0,0 +1,32 @@
+package com.space.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// A fleet-wide count of committed writes, advanced after the in-memory indexes have caught up. With
+// fleet.etag.enabled, list and count responses use it as their ETag; the start time keeps the counts of different
+// runs apart. Rows changed directly in the database, or by another instance, are not seen, so the tag is only
+// sound when this instance is the table's only writer and every client reaches this instance.
+@Component
+public class ShipModifications {
+    private final boolean enabled;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong count = new AtomicLong();
+
+    @Autowired
+    public ShipModifications(@Value("${fleet.etag.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void increment() {
+        count.incrementAndGet();
+    }
+
+    // null unless fleet.etag.enabled
+    public String version() {
+        return enabled ? epoch + "-" + count.get() : null;
+    }
+}
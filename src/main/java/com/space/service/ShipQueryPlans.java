@@ -0,0 +1,144 @@
+package com.space.service;
+
+import com.space.model.ShipFilter;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.Query;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// One JPQL statement per filter shape (which parameters are present) and sort, written once and reused,
+// so Hibernate's plan cache translates each to SQL only once and a request only binds values.
+final class ShipQueryPlans {
+    static final int NAME = 1;
+    static final int NAME_IDS = 1 << 1;
+    static final int PLANET = 1 << 2;
+    static final int PLANET_IDS = 1 << 3;
+    static final int SHIP_TYPE = 1 << 4;
+    static final int AFTER = 1 << 5;
+    static final int BEFORE = 1 << 6;
+    static final int IS_USED = 1 << 7;
+    static final int MIN_SPEED = 1 << 8;
+    static final int MAX_SPEED = 1 << 9;
+    static final int MIN_CREW_SIZE = 1 << 10;
+    static final int MAX_CREW_SIZE = 1 << 11;
+    static final int MIN_RATING = 1 << 12;
+    static final int MAX_RATING = 1 << 13;
+    static final int SEEK_ID = 1 << 14;
+    static final int SEEK_VALUE = 1 << 15;
+
+    private static final Set<String> SORTABLE = new HashSet<>(Arrays.asList(
+            "id", "name", "planet", "shipType", "prodDate", "isUsed", "speed", "crewSize", "rating"));
+
+    private final ConcurrentMap<Integer, String> counts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Sort, ConcurrentMap<Integer, String>> selects = new ConcurrentHashMap<>();
+
+    static int shape(ShipFilter filter, Set<Long> nameIds, Set<Long> planetIds) {
+        int shape = 0;
+        if (filter.getName() != null) shape |= NAME;
+        if (nameIds != null) shape |= NAME_IDS;
+        if (filter.getPlanet() != null) shape |= PLANET;
+        if (planetIds != null) shape |= PLANET_IDS;
+        if (filter.getShipType() != null) shape |= SHIP_TYPE;
+        if (filter.getAfter() != null) shape |= AFTER;
+        if (filter.getBefore() != null) shape |= BEFORE;
+        if (filter.getUsed() != null) shape |= IS_USED;
+        if (filter.getMinSpeed() != null) shape |= MIN_SPEED;
+        if (filter.getMaxSpeed() != null) shape |= MAX_SPEED;
+        if (filter.getMinCrewSize() != null) shape |= MIN_CREW_SIZE;
+        if (filter.getMaxCrewSize() != null) shape |= MAX_CREW_SIZE;
+        if (filter.getMinRating() != null) shape |= MIN_RATING;
+        if (filter.getMaxRating() != null) shape |= MAX_RATING;
+        if (filter.getSeekId() != null) shape |= filter.getSeekValue() != null ? SEEK_ID | SEEK_VALUE : SEEK_ID;
+        return shape;
+    }
+
+    String count(int shape) {
+        return counts.computeIfAbsent(shape, key -> "select count(s) from Ship s" + where(key, null));
+    }
+
+    String select(int shape, Sort sort) {
+        return selects.computeIfAbsent(sort, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(shape, key -> "select s from Ship s" + where(key, seekField(sort)) + orderBy(sort));
+    }
+
+    static void bind(Query query, int shape, ShipFilter filter, Set<Long> nameIds, Set<Long> planetIds) {
+        if ((shape & NAME) != 0) query.setParameter("name", "%" + filter.getName() + "%");
+        if ((shape & NAME_IDS) != 0) query.setParameter("nameIds", nameIds);
+        if ((shape & PLANET) != 0) query.setParameter("planet", "%" + filter.getPlanet() + "%");
+        if ((shape & PLANET_IDS) != 0) query.setParameter("planetIds", planetIds);
+        if ((shape & SHIP_TYPE) != 0) query.setParameter("shipType", filter.getShipType());
+        if ((shape & AFTER) != 0) query.setParameter("after", filter.getAfter());
+        if ((shape & BEFORE) != 0) query.setParameter("before", filter.getBefore());
+        if ((shape & IS_USED) != 0) query.setParameter("isUsed", filter.getUsed());
+        if ((shape & MIN_SPEED) != 0) query.setParameter("minSpeed", filter.getMinSpeed());
+        if ((shape & MAX_SPEED) != 0) query.setParameter("maxSpeed", filter.getMaxSpeed());
+        if ((shape & MIN_CREW_SIZE) != 0) query.setParameter("minCrewSize", filter.getMinCrewSize());
+        if ((shape & MAX_CREW_SIZE) != 0) query.setParameter("maxCrewSize", filter.getMaxCrewSize());
+        if ((shape & MIN_RATING) != 0) query.setParameter("minRating", filter.getMinRating());
+        if ((shape & MAX_RATING) != 0) query.setParameter("maxRating", filter.getMaxRating());
+        if ((shape & SEEK_ID) != 0) query.setParameter("seekId", filter.getSeekId());
+        if ((shape & SEEK_VALUE) != 0) query.setParameter("seekValue", filter.getSeekValue());
+    }
+
+    private static String where(int shape, String seekField) {
+        StringBuilder where = new StringBuilder();
+        appendIf(where, shape, NAME_IDS, "s.id in :nameIds");
+        appendIf(where, shape, NAME, "s.name like :name");
+        appendIf(where, shape, PLANET_IDS, "s.id in :planetIds");
+        appendIf(where, shape, PLANET, "s.planet like :planet");
+        appendIf(where, shape, SHIP_TYPE, "s.shipType = :shipType");
+        appendIf(where, shape, AFTER, "s.prodDate >= :after");
+        appendIf(where, shape, BEFORE, "s.prodDate <= :before");
+        appendIf(where, shape, IS_USED, "s.isUsed = :isUsed");
+        appendIf(where, shape, MIN_SPEED, "s.speed >= :minSpeed");
+        appendIf(where, shape, MAX_SPEED, "s.speed <= :maxSpeed");
+        appendIf(where, shape, MIN_CREW_SIZE, "s.crewSize >= :minCrewSize");
+        appendIf(where, shape, MAX_CREW_SIZE, "s.crewSize <= :maxCrewSize");
+        appendIf(where, shape, MIN_RATING, "s.rating >= :minRating");
+        appendIf(where, shape, MAX_RATING, "s.rating <= :maxRating");
+        if ((shape & SEEK_VALUE) != 0) {
+            appendIf(where, shape, SEEK_VALUE, "(s." + seekField + " > :seekValue or (s." + seekField
+                    + " = :seekValue and s.id > :seekId))");
+        } else {
+            appendIf(where, shape, SEEK_ID, "s.id > :seekId");
+        }
+        return where.toString();
+    }
+
+    private static void appendIf(StringBuilder where, int shape, int bit, String predicate) {
+        if ((shape & bit) == 0) {
+            return;
+        }
+        where.append(where.length() == 0 ? " where " : " and ").append(predicate);
+    }
+
+    private static String seekField(Sort sort) {
+        return sort.isSorted() ? property(sort.iterator().next()) : "id";
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        for (Sort.Order order : sort) {
+            if (orderBy.length() > " order by ".length()) {
+                orderBy.append(", ");
+            }
+            orderBy.append("s.").append(property(order)).append(order.isAscending() ? " asc" : " desc");
+        }
+        return orderBy.toString();
+    }
+
+    // the property name is pasted into the statement, so only the entity's own attributes are accepted
+    private static String property(Sort.Order order) {
+        if (!SORTABLE.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Unknown sort property: " + order.getProperty());
+        }
+        return order.getProperty();
+    }
+}
@@ -0,0 +1,512 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// One array of (value, id) pairs per range-filtered column, kept sorted, so a range is two binary searches and
+// a SPEED/DATE/RATING page is a walk from the first qualifying entry. Filters without name or planet only;
+// shipType and isUsed come from ShipBitmapIndex when it is enabled and from the index's own copy otherwise,
+// several ranges are checked per id along the narrowest one. Only writes through this instance reach the arrays,
+// so it is meant for a single instance owning the table.
+@Component
+public class ShipRangeIndex {
+    private static final int SPEED = 0;
+    private static final int CREW_SIZE = 1;
+    private static final int RATING = 2;
+    private static final int PROD_DATE = 3;
+
+    private final ShipRepository shipRepository;
+    private final ShipBitmapIndex bitmapIndex;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SortedColumn[] columns = {new SortedColumn(), new SortedColumn(), new SortedColumn(), new SortedColumn()};
+    // the keys each ship is filed under, per column and indexed by id: checked along a range walk and used to find
+    // a ship's entries again on update and delete
+    private long[][] byId = new long[4][0];
+    // shipType ordinal and isUsed per id, packed as ordinal << 1 | used, for filters when ShipBitmapIndex is off
+    private byte[] kinds = new byte[0];
+    private final RoaringBitmap present = new RoaringBitmap();
+    private boolean loaded;
+
+    @Autowired
+    public ShipRangeIndex(ShipRepository shipRepository, ShipBitmapIndex bitmapIndex,
+                          @Value("${search.range.enabled:false}") boolean enabled) {
+        this.shipRepository = shipRepository;
+        this.bitmapIndex = bitmapIndex;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean supports(ShipFilter filter, Sort sort) {
+        if (filter.getName() != null || filter.getPlanet() != null) {
+            return false;
+        }
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return true;
+        }
+        Sort.Order first = orders.next();
+        int by = column(first.getProperty());
+        if (first.isDescending() || by == -2 || by >= 0 && filter.getSeekId() != null && filter.getSeekValue() == null) {
+            return false;
+        }
+        if (!orders.hasNext()) {
+            return true;
+        }
+        Sort.Order second = orders.next();
+        return !orders.hasNext() && second.isAscending() && second.getProperty().equals("id");
+    }
+
+    public int count(ShipFilter filter) {
+        readLoaded();
+        try {
+            long[][] bounds = bounds(filter);
+            RoaringBitmap flags = flags(filter);
+            int driver = narrowest(bounds);
+            if (driver == -1) {
+                return flags == null ? present.getCardinality() : flags.getCardinality();
+            }
+            SortedColumn column = columns[driver];
+            int from = column.lowerBound(bounds[driver][0]);
+            int to = column.upperBound(bounds[driver][1]);
+            if (flags == null && ranges(bounds) == 1) {
+                return Math.max(0, to - from);
+            }
+            int count = 0;
+            for (int position = from; position < to; position++) {
+                if (matches(column.ids[position], bounds, flags, driver)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ids of up to limit ships from offset in sort order; the caller asks for one more than a page to see if another follows
+    public int[] find(ShipFilter filter, Sort sort, long offset, int limit) {
+        if (!supports(filter, sort)) {
+            throw new IllegalArgumentException("Unsupported filter or sort: " + sort);
+        }
+        Iterator<Sort.Order> orders = sort.iterator();
+        int by = orders.hasNext() ? column(orders.next().getProperty()) : -1;
+
+        readLoaded();
+        try {
+            long[][] bounds = bounds(filter);
+            RoaringBitmap flags = flags(filter);
+            if (by == -1) {
+                return walkIds(idOrdered(bounds, flags), filter.getSeekId(), offset, limit);
+            }
+
+            // the sort column is walked from the first qualifying entry, every other constraint is checked per id
+            SortedColumn column = columns[by];
+            int from = column.lowerBound(bounds[by] == null ? Long.MIN_VALUE : bounds[by][0]);
+            int to = column.upperBound(bounds[by] == null ? Long.MAX_VALUE : bounds[by][1]);
+            if (filter.getSeekId() != null) {
+                from = Math.max(from, column.after(key(by, filter.getSeekValue()), Math.toIntExact(filter.getSeekId())));
+            }
+            int[] page = new int[limit];
+            int found = 0;
+            long skipped = 0;
+            for (int position = from; position < to && found < limit; position++) {
+                int id = column.ids[position];
+                if (!matches(id, bounds, flags, by)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page[found++] = id;
+                }
+            }
+            return Arrays.copyOf(page, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Ship ship) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                add(Math.toIntExact(ship.getId()), kind(ship.getShipType(), ship.getUsed()), ship.getSpeed(),
+                        ship.getCrewSize(), ship.getRating(), ShipRatings.startOfDay(ship.getProdDate().getTime()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            // a larger id was never let in
+            if (loaded && id <= Integer.MAX_VALUE) {
+                clear((int) id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            byId = new long[4][0];
+            kinds = new byte[0];
+            present.clear();
+            for (SortedColumn column : columns) {
+                column.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // returns holding the read lock over a loaded index: the flag is checked under the lock, and a load keeps the
+    // lock it downgrades to, so an invalidate() cannot clear the arrays between the check and the read
+    private void readLoaded() {
+        lock.readLock().lock();
+        if (loaded) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        // appended unsorted and sorted once, rather than n binary-search inserts
+        for (Object[] row : shipRepository.findAllColumns()) {
+            int id = Math.toIntExact((Long) row[0]);
+            file(id, kind((ShipType) row[3], (Boolean) row[5]),
+                    sortable((Double) row[6]), (Integer) row[7], sortable((Double) row[8]), ((Date) row[4]).getTime());
+            for (int column = 0; column < columns.length; column++) {
+                columns[column].append(byId[column][id], id);
+            }
+        }
+        for (SortedColumn column : columns) {
+            column.sort();
+        }
+        loaded = true;
+    }
+
+    private void add(int id, byte kind, double speed, int crewSize, double rating, long prodDate) {
+        clear(id);
+        file(id, kind, sortable(speed), crewSize, sortable(rating), prodDate);
+        for (int column = 0; column < columns.length; column++) {
+            columns[column].insert(byId[column][id], id);
+        }
+    }
+
+    private void file(int id, byte kind, long... shipKeys) {
+        if (id >= byId[0].length) {
+            int capacity = Math.max(64, Math.max(id + 1, byId[0].length * 2));
+            for (int column = 0; column < byId.length; column++) {
+                byId[column] = Arrays.copyOf(byId[column], capacity);
+            }
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+        kinds[id] = kind;
+        for (int column = 0; column < byId.length; column++) {
+            byId[column][id] = shipKeys[column];
+        }
+        present.add(id);
+    }
+
+    private void clear(int id) {
+        if (!present.checkedRemove(id)) {
+            return;
+        }
+        for (int column = 0; column < columns.length; column++) {
+            columns[column].delete(byId[column][id], id);
+        }
+    }
+
+    // inclusive [min, max] key bounds per column, null where the filter leaves the column open
+    private static long[][] bounds(ShipFilter filter) {
+        long[][] bounds = new long[4][];
+        if (filter.getMinSpeed() != null || filter.getMaxSpeed() != null) {
+            bounds[SPEED] = new long[]{
+                    filter.getMinSpeed() == null ? Long.MIN_VALUE : sortable(filter.getMinSpeed()),
+                    filter.getMaxSpeed() == null ? Long.MAX_VALUE : sortable(filter.getMaxSpeed())};
+        }
+        if (filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null) {
+            bounds[CREW_SIZE] = new long[]{
+                    filter.getMinCrewSize() == null ? Long.MIN_VALUE : filter.getMinCrewSize(),
+                    filter.getMaxCrewSize() == null ? Long.MAX_VALUE : filter.getMaxCrewSize()};
+        }
+        if (filter.getMinRating() != null || filter.getMaxRating() != null) {
+            bounds[RATING] = new long[]{
+                    filter.getMinRating() == null ? Long.MIN_VALUE : sortable(filter.getMinRating()),
+                    filter.getMaxRating() == null ? Long.MAX_VALUE : sortable(filter.getMaxRating())};
+        }
+        if (filter.getAfter() != null || filter.getBefore() != null) {
+            bounds[PROD_DATE] = new long[]{
+                    filter.getAfter() == null ? Long.MIN_VALUE : filter.getAfter().getTime(),
+                    filter.getBefore() == null ? Long.MAX_VALUE : filter.getBefore().getTime()};
+        }
+        return bounds;
+    }
+
+    // ids matching shipType and isUsed, null when neither is given; ShipBitmapIndex is only asked when enabled, as
+    // asking would load it
+    private RoaringBitmap flags(ShipFilter filter) {
+        ShipType shipType = filter.getShipType();
+        Boolean isUsed = filter.getUsed();
+        if (shipType == null && isUsed == null) {
+            return null;
+        }
+        if (bitmapIndex.isEnabled()) {
+            return bitmapIndex.ids(shipType, isUsed);
+        }
+        RoaringBitmap flags = new RoaringBitmap();
+        PeekableIntIterator ids = present.getIntIterator();
+        while (ids.hasNext()) {
+            int id = ids.next();
+            if ((shipType == null || kinds[id] >> 1 == shipType.ordinal())
+                    && (isUsed == null || (kinds[id] & 1) == (isUsed ? 1 : 0))) {
+                flags.add(id);
+            }
+        }
+        return flags;
+    }
+
+    private static byte kind(ShipType shipType, boolean isUsed) {
+        return (byte) (shipType.ordinal() << 1 | (isUsed ? 1 : 0));
+    }
+
+    private static int ranges(long[][] bounds) {
+        int ranges = 0;
+        for (long[] bound : bounds) {
+            if (bound != null) {
+                ranges++;
+            }
+        }
+        return ranges;
+    }
+
+    // the bounded column with the fewest entries in range, -1 when no range is given
+    private int narrowest(long[][] bounds) {
+        int narrowest = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int column = 0; column < bounds.length; column++) {
+            if (bounds[column] != null) {
+                int count = columns[column].count(bounds[column][0], bounds[column][1]);
+                if (count < fewest) {
+                    fewest = count;
+                    narrowest = column;
+                }
+            }
+        }
+        return narrowest;
+    }
+
+    private boolean matches(int id, long[][] bounds, RoaringBitmap flags, int skip) {
+        if (flags != null && !flags.contains(id)) {
+            return false;
+        }
+        for (int column = 0; column < bounds.length; column++) {
+            if (column != skip && bounds[column] != null
+                    && (byId[column][id] < bounds[column][0] || byId[column][id] > bounds[column][1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // all matching ids in id order, gathered from the narrowest range or else from the flag bitmaps
+    private RoaringBitmap idOrdered(long[][] bounds, RoaringBitmap flags) {
+        int driver = narrowest(bounds);
+        if (driver == -1) {
+            return flags == null ? present : flags;
+        }
+        SortedColumn column = columns[driver];
+        RoaringBitmap ids = new RoaringBitmap();
+        for (int position = column.lowerBound(bounds[driver][0]), to = column.upperBound(bounds[driver][1]); position < to; position++) {
+            int id = column.ids[position];
+            if (matches(id, bounds, flags, driver)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static int[] walkIds(RoaringBitmap candidates, Long seekId, long offset, int limit) {
+        int[] page = new int[limit];
+        int found = 0;
+        long skipped = 0;
+        PeekableIntIterator iterator = candidates.getIntIterator();
+        if (seekId != null) {
+            iterator.advanceIfNeeded(Math.toIntExact(seekId) + 1);
+        }
+        while (iterator.hasNext() && found < limit) {
+            int id = iterator.next();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page[found++] = id;
+            }
+        }
+        return Arrays.copyOf(page, found);
+    }
+
+    private static int column(String property) {
+        switch (property) {
+            case "id":
+                return -1;
+            case "speed":
+                return SPEED;
+            case "rating":
+                return RATING;
+            case "prodDate":
+                return PROD_DATE;
+            default:
+                return -2;
+        }
+    }
+
+    private static long key(int column, Object value) {
+        if (column == PROD_DATE) {
+            return value instanceof Date ? ((Date) value).getTime() : ((Number) value).longValue();
+        }
+        return sortable(((Number) value).doubleValue());
+    }
+
+    // flips the bits of negative doubles so that signed long order is double order
+    private static long sortable(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static final class SortedColumn {
+        private long[] keys = new long[0];
+        private int[] ids = new int[0];
+        private int size;
+
+        // first position whose key is at least key
+        int lowerBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // first position whose key is greater than key
+        int upperBound(long key) {
+            return key == Long.MAX_VALUE ? size : lowerBound(key + 1);
+        }
+
+        // first position after the pair (key, id)
+        int after(long key, int id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] < key || keys[middle] == key && ids[middle] <= id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        int count(long min, long max) {
+            return Math.max(0, upperBound(max) - lowerBound(min));
+        }
+
+        void append(long key, int id) {
+            ensureCapacity();
+            keys[size] = key;
+            ids[size++] = id;
+        }
+
+        void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            long[] sortedKeys = keys;
+            int[] sortedIds = ids;
+            Arrays.sort(order, (a, b) -> sortedKeys[a] != sortedKeys[b]
+                    ? Long.compare(sortedKeys[a], sortedKeys[b]) : Integer.compare(sortedIds[a], sortedIds[b]));
+            long[] newKeys = new long[keys.length];
+            int[] newIds = new int[ids.length];
+            for (int i = 0; i < size; i++) {
+                newKeys[i] = keys[order[i]];
+                newIds[i] = ids[order[i]];
+            }
+            keys = newKeys;
+            ids = newIds;
+        }
+
+        void insert(long key, int id) {
+            ensureCapacity();
+            int position = after(key, id);
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            keys[position] = key;
+            ids[position] = id;
+            size++;
+        }
+
+        void delete(long key, int id) {
+            int position = after(key, id) - 1;
+            if (position < 0 || keys[position] != key || ids[position] != id) {
+                return;
+            }
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        void clear() {
+            keys = new long[0];
+            ids = new int[0];
+            size = 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == keys.length) {
+                int capacity = Math.max(64, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.space.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+// allocation-free production year lookup and rating formula for ShipService
+final class ShipRatings {
+    static final int MIN_YEAR = 2800;
+    static final int MAX_YEAR = 3019;
+    static final int INVALID_YEAR = -1;
+
+    // start of every valid year and of MAX_YEAR + 1, in the JVM time zone as GregorianCalendar would use it
+    private static final long[] YEAR_STARTS = yearStarts(ZoneId.systemDefault());
+
+    private ShipRatings() {
+    }
+
+    static int prodYear(long prodDate) {
+        if (prodDate < YEAR_STARTS[0] || prodDate >= YEAR_STARTS[YEAR_STARTS.length - 1]) {
+            return INVALID_YEAR;
+        }
+        int index = Arrays.binarySearch(YEAR_STARTS, prodDate);
+        return MIN_YEAR + (index >= 0 ? index : -index - 2);
+    }
+
+    static double rating(double speed, boolean isUsed, long prodDate) {
+        int year = prodYear(prodDate);
+        long speedCents = Math.round(speed * 100);
+        if (year == INVALID_YEAR || speedCents / 100.0 != speed) {
+            return referenceRating(speed, isUsed, prodDate);
+        }
+
+        double k = isUsed ? 0.5 : 1;
+        int divisor = MAX_YEAR - year + 1;
+        double rating = (80 * speed * k) / divisor;
+
+        // rating * 100 = numerator / divisor exactly, so the integer remainder tells the rounding direction
+        long numerator = (isUsed ? 40 : 80) * speedCents;
+        long cents = numerator / divisor;
+        long twiceRemainder = 2 * (numerator % divisor);
+        if (twiceRemainder > divisor) {
+            cents++;
+        } else if (twiceRemainder == divisor && rating >= (2 * cents + 1) / 200.0) {
+            // an exact half: BigDecimal.valueOf rounds the double's shortest decimal form, which is at least
+            // the half exactly when the double is at least the double nearest to it
+            cents++;
+        }
+        return cents / 100.0;
+    }
+
+    // a DATE column keeps only the day in the JVM time zone, which is what the database hands back on load
+    static long startOfDay(long millis) {
+        ZoneId zone = ZoneId.systemDefault();
+        return Instant.ofEpochMilli(millis).atZone(zone).toLocalDate().atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    static double referenceRating(double speed, boolean isUsed, long prodDate) {
+        double k = isUsed ? 0.5 : 1;
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date(prodDate));
+        int prodYear = calendar.get(Calendar.YEAR);
+        BigDecimal rating = BigDecimal.valueOf((80 * speed * k) / (MAX_YEAR - prodYear + 1)).setScale(2, RoundingMode.HALF_UP);
+        return rating.doubleValue();
+    }
+
+    private static long[] yearStarts(ZoneId zone) {
+        long[] result = new long[MAX_YEAR - MIN_YEAR + 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = LocalDate.of(MIN_YEAR + i, 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,618 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// The ship table as one primitive array per column, filtered with word-at-a-time bit masks.
+// Loaded on first use and kept current by ShipService after each commit; slots are dense, a removed ship
+// is replaced by the last one. Only writes through this instance reach the copy, so it is meant for a single
+// instance owning the table.
+@Component
+public class ShipReplica implements DisposableBean {
+    private static final int BY_ID = 0;
+    private static final int BY_SPEED = 1;
+    private static final int BY_PROD_DATE = 2;
+    private static final int BY_RATING = 3;
+
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private volatile boolean loaded;
+
+    private int size;
+    private long[] id = new long[0];
+    private long[] version = new long[0];
+    private String[] name = new String[0];
+    private String[] planet = new String[0];
+    private String[] nameKey = new String[0];
+    private String[] planetKey = new String[0];
+    private byte[] shipType = new byte[0];
+    private long[] prodDate = new long[0];
+    private double[] speed = new double[0];
+    private int[] crewSize = new int[0];
+    private double[] rating = new double[0];
+    private long[] used = new long[0];
+    private long[][] types = new long[SHIP_TYPES.length][0];
+
+    @Autowired
+    public ShipReplica(ShipRepository shipRepository, @Value("${replica.enabled:false}") boolean enabled,
+                       @Value("${replica.parallelism:0}") int parallelism,
+                       @Value("${replica.parallelThreshold:100000}") int parallelThreshold) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // name and planet as case-insensitive substrings, so only terms the LIKE matches the same way (see
+    // ShipTextIndex.literal); ascending by id, or by speed, prodDate or rating and then id, as GET /rest/ships sorts
+    public boolean supports(ShipFilter filter, Sort sort) {
+        return supports(filter) && supports(sort);
+    }
+
+    private static boolean supports(ShipFilter filter) {
+        return (filter.getName() == null || ShipTextIndex.literal(filter.getName()))
+                && (filter.getPlanet() == null || ShipTextIndex.literal(filter.getPlanet()));
+    }
+
+    private boolean supports(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return true;
+        }
+        Sort.Order first = orders.next();
+        if (first.isDescending() || sortKey(first.getProperty()) < 0) {
+            return false;
+        }
+        if (!orders.hasNext()) {
+            return true;
+        }
+        Sort.Order second = orders.next();
+        return !orders.hasNext() && second.isAscending() && second.getProperty().equals("id");
+    }
+
+    public int count(ShipFilter filter) {
+        if (!supports(filter)) {
+            throw new IllegalArgumentException("Unsupported filter: " + filter.getName() + ", " + filter.getPlanet());
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return scan(filter, BY_ID, 0).matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Slice<Ship> find(ShipFilter filter, Pageable pageable) {
+        if (!supports(pageable.getSort())) {
+            throw new IllegalArgumentException("Unsupported sort: " + pageable.getSort());
+        }
+        if (!supports(filter)) {
+            throw new IllegalArgumentException("Unsupported filter: " + filter.getName() + ", " + filter.getPlanet());
+        }
+        Iterator<Sort.Order> orders = pageable.getSort().iterator();
+        int key = orders.hasNext() ? sortKey(orders.next().getProperty()) : BY_ID;
+
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            long offset = pageable.getOffset();
+            Chunk result = scan(filter, key, (int) Math.min(offset + pageable.getPageSize(), Integer.MAX_VALUE));
+            int matches = result.matches;
+            if (offset >= matches) {
+                return new SliceImpl<>(new ArrayList<>(), pageable, false);
+            }
+
+            int end = (int) Math.min(offset + pageable.getPageSize(), matches);
+            int[] top = result.top;
+            List<Ship> content = new ArrayList<>(end - (int) offset);
+            for (int i = (int) offset; i < end; i++) {
+                content.add(ship(top[i]));
+            }
+            return new SliceImpl<>(content, pageable, matches > end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Ship ship) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Integer slot = slots.get(ship.getId());
+            if (slot == null) {
+                slot = append(ship.getId());
+            }
+            version[slot] = ship.getVersion();
+            set(slot, ship.getName(), ship.getPlanet(), ship.getShipType(), ShipRatings.startOfDay(ship.getProdDate().getTime()),
+                    ship.getUsed(), ship.getSpeed(), ship.getCrewSize(), ship.getRating());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long shipId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Integer slot = slots.remove(shipId);
+            if (slot == null) {
+                return;
+            }
+            int last = --size;
+            if (slot != last) {
+                set(slot, name[last], planet[last], SHIP_TYPES[shipType[last]], prodDate[last],
+                        bit(used, last), speed[last], crewSize[last], rating[last]);
+                id[slot] = id[last];
+                version[slot] = version[last];
+                slots.put(id[slot], slot);
+            }
+            clearBits(last);
+            name[last] = planet[last] = nameKey[last] = planetKey[last] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            slots.clear();
+            size = 0;
+            id = new long[0];
+            version = new long[0];
+            name = planet = nameKey = planetKey = new String[0];
+            shipType = new byte[0];
+            prodDate = new long[0];
+            speed = new double[0];
+            crewSize = new int[0];
+            rating = new double[0];
+            used = new long[0];
+            types = new long[SHIP_TYPES.length][0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            for (Object[] row : shipRepository.findAllColumns()) {
+                int slot = append((Long) row[0]);
+                version[slot] = (Long) row[9];
+                set(slot, (String) row[1], (String) row[2], (ShipType) row[3], ((Date) row[4]).getTime(),
+                        (Boolean) row[5], (Double) row[6], (Integer) row[7], (Double) row[8]);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int append(long shipId) {
+        if (size == id.length) {
+            grow(Math.max(64, size * 2));
+        }
+        int slot = size++;
+        id[slot] = shipId;
+        slots.put(shipId, slot);
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        id = Arrays.copyOf(id, capacity);
+        version = Arrays.copyOf(version, capacity);
+        name = Arrays.copyOf(name, capacity);
+        planet = Arrays.copyOf(planet, capacity);
+        nameKey = Arrays.copyOf(nameKey, capacity);
+        planetKey = Arrays.copyOf(planetKey, capacity);
+        shipType = Arrays.copyOf(shipType, capacity);
+        prodDate = Arrays.copyOf(prodDate, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        crewSize = Arrays.copyOf(crewSize, capacity);
+        rating = Arrays.copyOf(rating, capacity);
+        int words = (capacity + 63) >>> 6;
+        used = Arrays.copyOf(used, words);
+        for (int i = 0; i < types.length; i++) {
+            types[i] = Arrays.copyOf(types[i], words);
+        }
+    }
+
+    private void set(int slot, String shipName, String shipPlanet, ShipType type, long date, boolean isUsed,
+                     double shipSpeed, int shipCrewSize, double shipRating) {
+        name[slot] = shipName;
+        planet[slot] = shipPlanet;
+        nameKey[slot] = shipName.toLowerCase(Locale.ROOT);
+        planetKey[slot] = shipPlanet.toLowerCase(Locale.ROOT);
+        shipType[slot] = (byte) type.ordinal();
+        prodDate[slot] = date;
+        speed[slot] = shipSpeed;
+        crewSize[slot] = shipCrewSize;
+        rating[slot] = shipRating;
+        clearBits(slot);
+        if (isUsed) {
+            used[slot >>> 6] |= 1L << slot;
+        }
+        types[type.ordinal()][slot >>> 6] |= 1L << slot;
+    }
+
+    private void clearBits(int slot) {
+        used[slot >>> 6] &= ~(1L << slot);
+        for (long[] type : types) {
+            type[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    private Ship ship(int slot) {
+        Ship ship = new Ship();
+        ship.setId(id[slot]);
+        ship.setName(name[slot]);
+        ship.setPlanet(planet[slot]);
+        ship.setShipType(SHIP_TYPES[shipType[slot]]);
+        ship.setProdDate(new Date(prodDate[slot]));
+        ship.setUsed(bit(used, slot));
+        ship.setSpeed(speed[slot]);
+        ship.setCrewSize(crewSize[slot]);
+        ship.setRating(rating[slot]);
+        ship.setVersion(version[slot]);
+        return ship;
+    }
+
+    // one bit per slot of words [from, to), narrowed by each present filter in turn; name and planet match
+    // case-insensitively like the utf8_general_ci columns, with the term taken literally
+    private long[] match(ShipFilter filter, int key, int from, int to) {
+        long[] mask = new long[to - from];
+        Arrays.fill(mask, -1L);
+        if (to == (size + 63) >>> 6 && (size & 63) != 0) {
+            mask[mask.length - 1] = (1L << size) - 1;
+        }
+
+        if (filter.getShipType() != null) {
+            and(mask, from, types[filter.getShipType().ordinal()]);
+        }
+        if (filter.getUsed() != null) {
+            if (filter.getUsed()) {
+                and(mask, from, used);
+            } else {
+                andNot(mask, from, used);
+            }
+        }
+        if (filter.getAfter() != null || filter.getBefore() != null) {
+            range(mask, from, prodDate,
+                    filter.getAfter() == null ? Long.MIN_VALUE : filter.getAfter().getTime(),
+                    filter.getBefore() == null ? Long.MAX_VALUE : filter.getBefore().getTime());
+        }
+        if (filter.getMinSpeed() != null || filter.getMaxSpeed() != null) {
+            range(mask, from, speed,
+                    filter.getMinSpeed() == null ? Double.NEGATIVE_INFINITY : filter.getMinSpeed(),
+                    filter.getMaxSpeed() == null ? Double.POSITIVE_INFINITY : filter.getMaxSpeed());
+        }
+        if (filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null) {
+            range(mask, from, crewSize,
+                    filter.getMinCrewSize() == null ? Integer.MIN_VALUE : filter.getMinCrewSize(),
+                    filter.getMaxCrewSize() == null ? Integer.MAX_VALUE : filter.getMaxCrewSize());
+        }
+        if (filter.getMinRating() != null || filter.getMaxRating() != null) {
+            range(mask, from, rating,
+                    filter.getMinRating() == null ? Double.NEGATIVE_INFINITY : filter.getMinRating(),
+                    filter.getMaxRating() == null ? Double.POSITIVE_INFINITY : filter.getMaxRating());
+        }
+        if (filter.getName() != null) {
+            contains(mask, from, nameKey, filter.getName().toLowerCase(Locale.ROOT));
+        }
+        if (filter.getPlanet() != null) {
+            contains(mask, from, planetKey, filter.getPlanet().toLowerCase(Locale.ROOT));
+        }
+        if (filter.getSeekId() != null) {
+            seek(mask, from, filter.getSeekValue() == null ? BY_ID : key, filter.getSeekValue(), filter.getSeekId());
+        }
+        return mask;
+    }
+
+    private static void and(long[] mask, int from, long[] bits) {
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] &= bits[from + i];
+        }
+    }
+
+    private static void andNot(long[] mask, int from, long[] bits) {
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] &= ~bits[from + i];
+        }
+    }
+
+    // branch-free inner loops over a whole word of values, so the JIT can unroll and vectorize them
+    private void range(long[] mask, int from, long[] column, long min, long max) {
+        for (int i = 0; i < mask.length; i++) {
+            int base = (from + i) << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0;
+            for (int bit = 0; bit < end; bit++) {
+                long value = column[base + bit];
+                bits |= (value >= min & value <= max ? 1L : 0L) << bit;
+            }
+            mask[i] &= bits;
+        }
+    }
+
+    private void range(long[] mask, int from, double[] column, double min, double max) {
+        for (int i = 0; i < mask.length; i++) {
+            int base = (from + i) << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0;
+            for (int bit = 0; bit < end; bit++) {
+                double value = column[base + bit];
+                bits |= (value >= min & value <= max ? 1L : 0L) << bit;
+            }
+            mask[i] &= bits;
+        }
+    }
+
+    private void range(long[] mask, int from, int[] column, int min, int max) {
+        for (int i = 0; i < mask.length; i++) {
+            int base = (from + i) << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0;
+            for (int bit = 0; bit < end; bit++) {
+                int value = column[base + bit];
+                bits |= (value >= min & value <= max ? 1L : 0L) << bit;
+            }
+            mask[i] &= bits;
+        }
+    }
+
+    private static void contains(long[] mask, int from, String[] column, String term) {
+        for (int i = 0; i < mask.length; i++) {
+            long bits = mask[i];
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (!column[((from + i) << 6) + bit].contains(term)) {
+                    mask[i] &= ~(1L << bit);
+                }
+            }
+        }
+    }
+
+    private void seek(long[] mask, int from, int key, Object value, long seekId) {
+        double seekKey = key == BY_ID ? 0 : value instanceof Date ? ((Date) value).getTime() : ((Number) value).doubleValue();
+        for (int i = 0; i < mask.length; i++) {
+            long bits = mask[i];
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int slot = ((from + i) << 6) + bit;
+                if (compare(key, slot, seekKey, seekId) <= 0) {
+                    mask[i] &= ~(1L << bit);
+                }
+            }
+        }
+    }
+
+    // the first k matching slots of the mask in sort order, kept in a bounded max-heap while the mask is walked
+    private int[] topK(long[] mask, int from, int key, int k) {
+        int[] heap = new int[k];
+        int count = 0;
+        for (int i = 0; i < mask.length; i++) {
+            long bits = mask[i];
+            while (bits != 0) {
+                int slot = ((from + i) << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (count < k) {
+                    heap[count] = slot;
+                    siftUp(heap, count++, key);
+                } else if (compare(key, slot, heap[0]) < 0) {
+                    heap[0] = slot;
+                    siftDown(heap, 0, k, key);
+                }
+            }
+        }
+        for (int end = count - 1; end > 0; end--) {
+            int top = heap[0];
+            heap[0] = heap[end];
+            heap[end] = top;
+            siftDown(heap, 0, end, key);
+        }
+        return count == k ? heap : Arrays.copyOf(heap, count);
+    }
+
+    // the first k slots of two chunk results, each already in sort order
+    private int[] merge(int[] left, int[] right, int key, int k) {
+        int[] merged = new int[Math.min(k, left.length + right.length)];
+        int l = 0;
+        int r = 0;
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = r == right.length || l < left.length && compare(key, left[l], right[r]) < 0 ? left[l++] : right[r++];
+        }
+        return merged;
+    }
+
+    private void siftUp(int[] heap, int index, int key) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(key, heap[parent], slot) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int index, int count, int key) {
+        int slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && compare(key, heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compare(key, slot, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private int compare(int key, int a, int b) {
+        return key == BY_ID ? Long.compare(id[a], id[b]) : compare(key, a, value(key, b), id[b]);
+    }
+
+    private int compare(int key, int slot, double otherValue, long otherId) {
+        if (key != BY_ID) {
+            int result = Double.compare(value(key, slot), otherValue);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Long.compare(id[slot], otherId);
+    }
+
+    private double value(int key, int slot) {
+        switch (key) {
+            case BY_SPEED:
+                return speed[slot];
+            case BY_PROD_DATE:
+                return prodDate[slot];
+            case BY_RATING:
+                return rating[slot];
+            default:
+                return id[slot];
+        }
+    }
+
+    private static int sortKey(String property) {
+        switch (property) {
+            case "id":
+                return BY_ID;
+            case "speed":
+                return BY_SPEED;
+            case "prodDate":
+                return BY_PROD_DATE;
+            case "rating":
+                return BY_RATING;
+            default:
+                return -1;
+        }
+    }
+
+    // small fleets are scanned on the calling thread; larger ones in about four chunks per worker, merged pairwise
+    // on the way back up
+    private Chunk scan(ShipFilter filter, int key, int k) {
+        int words = (size + 63) >>> 6;
+        if (size < parallelThreshold || pool.getParallelism() == 1) {
+            return new Scan(filter, key, k, 0, words, words).compute();
+        }
+        int chunkWords = Math.max(1, (words + 4 * pool.getParallelism() - 1) / (4 * pool.getParallelism()));
+        return pool.invoke(new Scan(filter, key, k, 0, words, chunkWords));
+    }
+
+    private static final class Chunk {
+        final int matches;
+        final int[] top;
+
+        Chunk(int matches, int[] top) {
+            this.matches = matches;
+            this.top = top;
+        }
+    }
+
+    // runs under the caller's read lock, which keeps writers out until the whole task tree has joined
+    private final class Scan extends RecursiveTask<Chunk> {
+        private final ShipFilter filter;
+        private final int key;
+        private final int k;
+        private final int from;
+        private final int to;
+        private final int chunkWords;
+
+        Scan(ShipFilter filter, int key, int k, int from, int to, int chunkWords) {
+            this.filter = filter;
+            this.key = key;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+            this.chunkWords = chunkWords;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from <= chunkWords) {
+                long[] mask = match(filter, key, from, to);
+                return new Chunk(bitCount(mask), k == 0 ? new int[0] : topK(mask, from, key, k));
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(filter, key, k, from, middle, chunkWords);
+            left.fork();
+            Chunk right = new Scan(filter, key, k, middle, to, chunkWords).compute();
+            Chunk joined = left.join();
+            return new Chunk(joined.matches + right.matches, merge(joined.top, right.top, key, k));
+        }
+    }
+
+    private static int bitCount(long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static boolean bit(long[] bits, int slot) {
+        return (bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+}
@@ -3,27 +3,48 @@ package com.space.service;
 
 import com.space.exceptions.BadRequestException;
 import com.space.exceptions.NotFoundException;
+import com.space.model.ImportResult;
 import com.space.model.Ship;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
 import com.space.repository.ShipRepository;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
@@ -32,19 +53,101 @@ public class ShipService implements IShipService {
     EntityManager entityManager;
 
     private final ShipRepository shipRepository;
+    private final ShipTextIndex textIndex;
+    private final ShipBitmapIndex bitmapIndex;
+    private final ShipReplica replica;
+    private final ShipRangeIndex rangeIndex;
+    private final ShipModifications modifications;
+    private final ShipQueryPlans queryPlans = new ShipQueryPlans();
+    private final TransactionTemplate transactionTemplate;
+    private final int importBatchSize;
+    private final int exportFetchSize;
 
     @Autowired
-    public ShipService(ShipRepository shipRepository) {
+    public ShipService(ShipRepository shipRepository, ShipTextIndex textIndex, ShipBitmapIndex bitmapIndex,
+                       ShipReplica replica, ShipRangeIndex rangeIndex, ShipModifications modifications,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${import.batchSize:500}") int importBatchSize,
+                       @Value("${export.fetchSize:1000}") int exportFetchSize) {
         this.shipRepository = shipRepository;
+        this.textIndex = textIndex;
+        this.bitmapIndex = bitmapIndex;
+        this.replica = replica;
+        this.rangeIndex = rangeIndex;
+        this.modifications = modifications;
+        this.transactionTemplate = transactionTemplate;
+        this.importBatchSize = importBatchSize;
+        this.exportFetchSize = exportFetchSize;
     }
 
     //basic methods implementation
 
     @Override
     public Ship createShip(Ship ship) {
+        prepareNewShip(ship);
+
+        Ship result = shipRepository.save(ship);
+        checkIndexable(result.getId());
+        afterCommit(() -> indexed(result));
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResult importShips(Iterator<Ship> ships) {
+        ImportResult result = new ImportResult();
+        List<Ship> batch = new ArrayList<>(importBatchSize);
+        long row = 0;
+        boolean unreadable = false;
+
+        try {
+            try {
+                while (ships.hasNext()) {
+                    unreadable = false;
+                    try {
+                        Ship ship = ships.next();
+                        prepareNewShip(ship);
+                        batch.add(ship);
+                    } catch (BadRequestException e) {
+                        result.addError(row, e.getMessage());
+                    } catch (RuntimeException e) {
+                        unreadable = true;
+                        result.addError(row, "unreadable row: " + e.getMessage());
+                    }
+                    row++;
+
+                    if (batch.size() == importBatchSize) {
+                        result.addImported(insertBatch(batch));
+                        batch.clear();
+                    }
+                }
+            } catch (RuntimeException e) {
+                // broken JSON syntax leaves the rest of the stream unreadable, rows before it are kept
+                if (!unreadable) {
+                    result.addError(row, "unreadable input: " + e.getMessage());
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                result.addImported(insertBatch(batch));
+            }
+        } finally {
+            // the rows bypassed Hibernate, so its query results and the indexes no longer reflect the table; this
+            // holds for the batches already committed when a later one fails as well
+            entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            invalidateIndexes();
+        }
+        return result;
+    }
+
+    private int insertBatch(List<Ship> batch) {
+        return transactionTemplate.execute(status -> shipRepository.insertAll(batch));
+    }
+
+    private void prepareNewShip(Ship ship) {
         if (ship.getName() == null || ship.getPlanet() == null || ship.getShipType() == null || ship.getProdDate() == null
                 || ship.getSpeed() == null || ship.getCrewSize() == null) {
-            throw new BadRequestException();
+            throw new BadRequestException("name, planet, shipType, prodDate, speed and crewSize are required");
         }
 
         auditShipName(ship);
@@ -57,18 +160,27 @@ public class ShipService implements IShipService {
             ship.setUsed(false);
         }
 
-        Double rating = computeRating(ship);
-        ship.setRating(rating);
-
-        return shipRepository.save(ship);
+        ship.setRating(computeRating(ship));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Ship getShip(Long id) {
-        if (!shipRepository.existsById(id)) {
-            throw new NotFoundException();
-        }
-        return shipRepository.findById(id).get();
+        return shipRepository.findById(id).orElseThrow(NotFoundException::new);
+    }
+
+    // the version alone, from the query cache while the ship is unchanged, so a conditional GET need not load it
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long getShipVersion(Long id) {
+        return shipRepository.findVersionById(id).orElseThrow(NotFoundException::new);
+    }
+
+    // in memory only; the class-level transaction would take a connection from the pool for nothing
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getFleetVersion() {
+        return modifications.version();
     }
 
     @Override
@@ -115,28 +227,235 @@ public class ShipService implements IShipService {
             updatedShip.setCrewSize(crewSize);
         }
 
-        Double rating = computeRating(updatedShip);
-        updatedShip.setRating(rating);
+        updatedShip.setRating(computeRating(updatedShip));
 
-        return shipRepository.save(updatedShip);
+        Ship result = shipRepository.save(updatedShip);
+        checkIndexable(result.getId());
+        afterCommit(() -> indexed(result));
+        return result;
     }
 
     @Override
     public void deleteShip(Long id) {
-        if (!shipRepository.existsById(id)) {
+        if (shipRepository.deleteShipById(id) == 0) {
             throw new NotFoundException();
         }
-        shipRepository.deleteById(id);
+        afterCommit(() -> unindexed(id));
+    }
+
+    @Override
+    public int updateShips(Specification<Ship> specification, Ship source) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Ship> update = criteriaBuilder.createCriteriaUpdate(Ship.class);
+        Root<Ship> root = update.from(Ship.class);
+        boolean changed = false;
+
+        if (source.getName() != null) {
+            auditShipName(source);
+            update.set(root.get("name"), source.getName());
+            changed = true;
+        }
+        if (source.getPlanet() != null) {
+            auditShipPlanet(source);
+            update.set(root.get("planet"), source.getPlanet());
+            changed = true;
+        }
+        if (source.getShipType() != null) {
+            update.set(root.get("shipType"), source.getShipType());
+            changed = true;
+        }
+        if (source.getCrewSize() != null) {
+            auditShipCrewSize(source);
+            update.set(root.get("crewSize"), source.getCrewSize());
+            changed = true;
+        }
+        if (source.getProdDate() != null) {
+            auditShipProdDate(source);
+            update.set(root.get("prodDate"), source.getProdDate());
+        }
+        if (source.getUsed() != null) {
+            update.set(root.get("isUsed"), source.getUsed());
+        }
+        if (source.getSpeed() != null) {
+            auditShipSpeed(source);
+            update.set(root.get("speed"), source.getSpeed());
+        }
+        if (source.getProdDate() != null || source.getUsed() != null || source.getSpeed() != null) {
+            update.set(root.<Double>get("rating"), ratingExpression(source, root, criteriaBuilder));
+            changed = true;
+        }
+        if (!changed) {
+            throw new BadRequestException("nothing to update");
+        }
+
+        // a bulk statement bypasses Hibernate's own versioning
+        update.set(root.<Long>get("version"), criteriaBuilder.sum(root.<Long>get("version"), 1L));
+
+        // no CriteriaQuery exists for an UPDATE; the search specifications only use the root and the builder
+        Predicate predicate = specification.toPredicate(root, null, criteriaBuilder);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        // Hibernate evicts the Ship cache region and the query results over the table after a bulk statement
+        int updated = entityManager.createQuery(update).executeUpdate();
+        afterCommit(this::invalidateIndexes);
+        return updated;
     }
 
     @Override
-    public Integer getShipsCount(Specification<Ship> specification) {
-        return shipRepository.findAll(specification).size();
+    public int deleteShips(Specification<Ship> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Ship> delete = criteriaBuilder.createCriteriaDelete(Ship.class);
+        Root<Ship> root = delete.from(Ship.class);
+        Predicate predicate = specification.toPredicate(root, null, criteriaBuilder);
+        if (predicate != null) {
+            delete.where(predicate);
+        }
+
+        int deleted = entityManager.createQuery(delete).executeUpdate();
+        afterCommit(this::invalidateIndexes);
+        return deleted;
+    }
+
+    // ShipRatings.rating in SQL, over the new value of each input the update sets and the stored value of the others.
+    // With r = 80 * speed * k / divisor in doubles, r rounds up exactly when it is at least the double nearest to
+    // the half cent above floor(r * 100), which is how BigDecimal.valueOf(r).setScale(2, HALF_UP) decides.
+    private Expression<Double> ratingExpression(Ship source, Root<Ship> root, CriteriaBuilder criteriaBuilder) {
+        Expression<Double> speed = source.getSpeed() != null
+                ? criteriaBuilder.literal(source.getSpeed())
+                : root.get("speed");
+        Expression<Double> k = source.getUsed() != null
+                ? criteriaBuilder.literal(source.getUsed() ? 0.5 : 1.0)
+                : criteriaBuilder.<Double>selectCase().when(criteriaBuilder.isTrue(root.get("isUsed")), 0.5).otherwise(1.0);
+        Expression<Integer> divisor = source.getProdDate() != null
+                ? criteriaBuilder.literal(ShipRatings.MAX_YEAR - ShipRatings.prodYear(source.getProdDate().getTime()) + 1)
+                : criteriaBuilder.diff(ShipRatings.MAX_YEAR + 1, criteriaBuilder.function("year", Integer.class, root.get("prodDate")));
+
+        Expression<Number> rating = criteriaBuilder.quot(criteriaBuilder.prod(criteriaBuilder.prod(speed, 80.0), k), divisor);
+        Expression<Double> cents = criteriaBuilder.function("floor", Double.class, criteriaBuilder.prod(rating, 100.0));
+        Expression<Number> half = criteriaBuilder.quot(criteriaBuilder.sum(criteriaBuilder.prod(cents, 2.0), 1.0), 200.0);
+
+        return criteriaBuilder.<Double>selectCase()
+                .when(criteriaBuilder.ge(rating, half), criteriaBuilder.quot(criteriaBuilder.sum(cents, 1.0), 100.0).as(Double.class))
+                .otherwise(criteriaBuilder.quot(cents, 100.0).as(Double.class));
     }
 
     @Override
-    public Page<Ship> getShipsList(Specification<Ship> specification, Pageable sortedBy) {
-        return shipRepository.findAll(specification, sortedBy);
+    @Transactional(readOnly = true)
+    public void exportShips(Specification<Ship> specification, Consumer<Ship> consumer) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = criteriaBuilder.createQuery(Ship.class);
+        Root<Ship> root = applySpecification(specification, query, criteriaBuilder);
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        // a full export would only churn the second-level cache, scrolled queries ignore a per-query cache mode
+        session.setCacheMode(CacheMode.IGNORE);
+        // forward-only cursor, fetchSize rows per round trip; each ship is detached once written so the session stays empty
+        try (ScrollableResults results = entityManager.createQuery(query).unwrap(Query.class)
+                .setFetchSize(exportFetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Ship ship = (Ship) results.get(0);
+                consumer.accept(ship);
+                session.detach(ship);
+            }
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+
+    // SUPPORTS: counts answered from the in-memory indexes must not check out a pooled connection for nothing
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Integer getShipsCount(ShipFilter filter) {
+        int flags = ShipQueryPlans.SHIP_TYPE | ShipQueryPlans.IS_USED;
+        if (bitmapIndex.isEnabled() && (ShipQueryPlans.shape(filter, null, null) & ~flags) == 0) {
+            return bitmapIndex.count(filter.getShipType(), filter.getUsed());
+        }
+        if (replica.isEnabled() && replica.supports(filter, Sort.unsorted())) {
+            return replica.count(filter);
+        }
+        if (rangeIndex.isEnabled() && rangeIndex.supports(filter, Sort.unsorted())) {
+            return rangeIndex.count(filter);
+        }
+        Set<Long> nameIds = filter.getName() == null ? null : textIndex.nameCandidates(filter.getName());
+        Set<Long> planetIds = filter.getPlanet() == null ? null : textIndex.planetCandidates(filter.getPlanet());
+        if (isEmpty(nameIds) || isEmpty(planetIds)) {
+            return 0;
+        }
+
+        int shape = ShipQueryPlans.shape(filter, nameIds, planetIds);
+        TypedQuery<Long> query = entityManager.createQuery(queryPlans.count(shape), Long.class);
+        ShipQueryPlans.bind(query, shape, filter, nameIds, planetIds);
+        return Math.toIntExact(query.setHint(QueryHints.HINT_CACHEABLE, true).getSingleResult());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Ship> getShipsSlice(ShipFilter filter, Pageable sortedBy) {
+        if (replica.isEnabled() && replica.supports(filter, sortedBy.getSort())) {
+            return replica.find(filter, sortedBy);
+        }
+        if (rangeIndex.isEnabled() && rangeIndex.supports(filter, sortedBy.getSort())) {
+            return rangeSlice(filter, sortedBy);
+        }
+        Set<Long> nameIds = filter.getName() == null ? null : textIndex.nameCandidates(filter.getName());
+        Set<Long> planetIds = filter.getPlanet() == null ? null : textIndex.planetCandidates(filter.getPlanet());
+        if (isEmpty(nameIds) || isEmpty(planetIds)) {
+            return new SliceImpl<>(new ArrayList<>(), sortedBy, false);
+        }
+
+        int shape = ShipQueryPlans.shape(filter, nameIds, planetIds);
+        TypedQuery<Ship> query = entityManager.createQuery(queryPlans.select(shape, sortedBy.getSort()), Ship.class);
+        ShipQueryPlans.bind(query, shape, filter, nameIds, planetIds);
+
+        List<Ship> content = query
+                .setFirstResult((int) sortedBy.getOffset())
+                .setMaxResults(sortedBy.getPageSize() + 1)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .getResultList();
+
+        boolean hasNext = content.size() > sortedBy.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, sortedBy.getPageSize());
+        }
+        return new SliceImpl<>(content, sortedBy, hasNext);
+    }
+
+    // the page is cut from the range index in sort order, only its ships are loaded, from the second-level cache where possible
+    private Slice<Ship> rangeSlice(ShipFilter filter, Pageable sortedBy) {
+        int[] ids = rangeIndex.find(filter, sortedBy.getSort(), sortedBy.getOffset(), sortedBy.getPageSize() + 1);
+        boolean hasNext = ids.length > sortedBy.getPageSize();
+        List<Long> pageIds = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length && i < sortedBy.getPageSize(); i++) {
+            pageIds.add((long) ids[i]);
+        }
+
+        List<Ship> content = new ArrayList<>(pageIds.size());
+        for (Ship ship : entityManager.unwrap(Session.class).byMultipleIds(Ship.class).multiLoad(pageIds)) {
+            if (ship != null) {
+                content.add(ship);
+            }
+        }
+        return new SliceImpl<>(content, sortedBy, hasNext);
+    }
+
+    // the text index already knows that nothing matches, so there is no need to ask the database; this relies on
+    // ShipTextIndex answering only for terms whose LIKE it can decide, and null for wildcards and non-ASCII text
+    private static boolean isEmpty(Set<Long> candidates) {
+        return candidates != null && candidates.isEmpty();
+    }
+
+    private Root<Ship> applySpecification(Specification<Ship> specification, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        Root<Ship> root = query.from(Ship.class);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return root;
     }
 
      //search methods implementation
@@ -149,7 +468,8 @@ public class ShipService implements IShipService {
                 if (name == null) {
                     return null;
                 }
-                return criteriaBuilder.like(root.get("name"), "%" + name + "%");
+                return narrowByIndex(textIndex.nameCandidates(name),
+                        criteriaBuilder.like(root.get("name"), "%" + name + "%"), root, criteriaBuilder);
             }
         };
     }
@@ -162,7 +482,8 @@ public class ShipService implements IShipService {
                 if (planet == null) {
                     return null;
                 }
-                return criteriaBuilder.like(root.get("planet"), "%" + planet + "%");
+                return narrowByIndex(textIndex.planetCandidates(planet),
+                        criteriaBuilder.like(root.get("planet"), "%" + planet + "%"), root, criteriaBuilder);
             }
         };
     }
@@ -273,47 +594,100 @@ public class ShipService implements IShipService {
         };
     }
 
+    // the LIKE stays in place: the index is case-insensitive and only yields a superset of the matches
+    private Predicate narrowByIndex(Set<Long> candidates, Predicate like, Root<Ship> root, CriteriaBuilder criteriaBuilder) {
+        if (candidates == null) {
+            return like;
+        }
+        if (candidates.isEmpty()) {
+            return criteriaBuilder.disjunction();
+        }
+        return criteriaBuilder.and(root.get("id").in(candidates), like);
+    }
+
+    private void indexed(Ship ship) {
+        textIndex.put(ship);
+        bitmapIndex.put(ship);
+        replica.put(ship);
+        rangeIndex.put(ship);
+        modifications.increment();
+    }
+
+    private void unindexed(long id) {
+        textIndex.remove(id);
+        bitmapIndex.remove(id);
+        replica.remove(id);
+        rangeIndex.remove(id);
+        modifications.increment();
+    }
+
+    private void invalidateIndexes() {
+        textIndex.invalidate();
+        bitmapIndex.invalidate();
+        replica.invalidate();
+        rangeIndex.invalidate();
+        modifications.increment();
+    }
+
+    // the bitmap and range indexes hold ids as ints; a larger one is refused while the transaction can still roll
+    // back, instead of failing in afterCommit once the row is already in the table
+    private void checkIndexable(long id) {
+        if ((bitmapIndex.isEnabled() || rangeIndex.isEnabled()) && id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("ship id " + id + " does not fit search.bitmap or search.range");
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     //audit methods implementation
 
     private void auditShipName(Ship ship) {
         String name = ship.getName();
         if (name.length() < 1 || name.length() > 50) {
-            throw new BadRequestException();
+            throw new BadRequestException("name must be 1 to 50 characters long");
         }
     }
 
     private void auditShipPlanet(Ship ship) {
         String planet = ship.getPlanet();
         if (planet.length() < 1 || planet.length() > 50) {
-            throw new BadRequestException();
+            throw new BadRequestException("planet must be 1 to 50 characters long");
         }
     }
 
     private void auditShipProdDate(Ship ship) {
-        Date prodDate = ship.getProdDate();
-        Calendar calendar = new GregorianCalendar();
-        calendar.setTime(prodDate);
-        int year = calendar.get(Calendar.YEAR);
-        if (year < 2800 || year > 3019) {
-            throw new BadRequestException();
+        if (ShipRatings.prodYear(ship.getProdDate().getTime()) == ShipRatings.INVALID_YEAR) {
+            throw new BadRequestException("prodDate must be within years 2800 to 3019");
         }
     }
 
     private void auditShipSpeed(Ship ship) {
         Double speed = ship.getSpeed();
         if (speed < 0.01 || speed > 0.99) {
-            throw new BadRequestException();
+            throw new BadRequestException("speed must be within 0.01 to 0.99");
         }
     }
 
     private void auditShipCrewSize(Ship ship) {
         Integer crewSize = ship.getCrewSize();
         if (crewSize < 1 || crewSize > 9999) {
-            throw new BadRequestException();
+            throw new BadRequestException("crewSize must be within 1 to 9999");
         }
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long auditId(String id) {
         Long longId = null;
 
@@ -334,14 +708,7 @@ public class ShipService implements IShipService {
         return longId;
     }
 
-    private Double computeRating(Ship ship) {
-        double k = ship.getUsed() ? 0.5 : 1;
-        Calendar calendar = new GregorianCalendar();
-        calendar.setTime(ship.getProdDate());
-        int prodYear = calendar.get(Calendar.YEAR);
-        BigDecimal rating = BigDecimal.valueOf((80 * ship.getSpeed() * k) / (3019 - prodYear + 1)).setScale(2, RoundingMode.HALF_UP);
-        return rating.doubleValue();
+    private double computeRating(Ship ship) {
+        return ShipRatings.rating(ship.getSpeed(), ship.getUsed(), ship.getProdDate().getTime());
     }
-
-
 }
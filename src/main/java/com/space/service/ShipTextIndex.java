@@ -0,0 +1,168 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Trigrams of every name and planet mapped to the ids holding them, so a substring search can be narrowed to
+// candidate ids, or answered without SQL when there are none. Only writes through this instance reach the
+// index, so it is meant for a single instance owning the table.
+@Component
+public class ShipTextIndex {
+    private static final int GRAM = 3;
+
+    private final ShipRepository shipRepository;
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private final Ngrams names = new Ngrams();
+    private final Ngrams planets = new Ngrams();
+    private volatile boolean loaded;
+
+    @Autowired
+    public ShipTextIndex(ShipRepository shipRepository,
+                         @Value("${search.ngram.enabled:false}") boolean enabled,
+                         @Value("${search.ngram.maxCandidates:1000}") int maxCandidates) {
+        this.shipRepository = shipRepository;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    // null means the index cannot narrow the search and the LIKE predicate has to do all the work
+    public Set<Long> nameCandidates(String term) {
+        return candidates(names, term);
+    }
+
+    public Set<Long> planetCandidates(String term) {
+        return candidates(planets, term);
+    }
+
+    public synchronized void put(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        names.put(ship.getId(), ship.getName());
+        planets.put(ship.getId(), ship.getPlanet());
+    }
+
+    public synchronized void remove(long id) {
+        names.remove(id);
+        planets.remove(id);
+    }
+
+    public synchronized void invalidate() {
+        loaded = false;
+        names.clear();
+        planets.clear();
+    }
+
+    private Set<Long> candidates(Ngrams ngrams, String term) {
+        if (!enabled || term.length() < GRAM || !literal(term)) {
+            return null;
+        }
+        if (!loaded) {
+            load();
+        }
+        Set<Long> result = ngrams.candidates(term.toLowerCase(Locale.ROOT));
+        return result.size() > maxCandidates ? null : result;
+    }
+
+    // the LIKE is unescaped, so % and _ are wildcards the grams know nothing about, and outside ASCII the column
+    // collation folds accents that lowercasing keeps; such terms are left to the LIKE alone
+    static boolean literal(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '%' || c == '_' || c == '\\' || c > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        for (Object[] row : shipRepository.findAllSearchTerms()) {
+            long id = (Long) row[0];
+            names.put(id, (String) row[1]);
+            planets.put(id, (String) row[2]);
+        }
+        loaded = true;
+    }
+
+    private static class Ngrams {
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+        private final Map<Long, String> values = new ConcurrentHashMap<>();
+
+        void put(long id, String value) {
+            remove(id);
+            if (value == null) {
+                return;
+            }
+            String normalized = value.toLowerCase(Locale.ROOT);
+            values.put(id, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        void remove(long id) {
+            String old = values.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (String gram : grams(old)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram, ids);
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            postings.clear();
+            values.clear();
+        }
+
+        Set<Long> candidates(String term) {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(term)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(ids);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            Set<Long> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+
+        private static Set<String> grams(String value) {
+            Set<String> result = new HashSet<>();
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                result.add(value.substring(i, i + GRAM));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- Indexes for GET /rest/ships and GET /rest/ships/count.
+-- InnoDB appends the primary key to every secondary index, so each of them also
+-- gives the "field, id" order needed for stable paging.
+
+-- ShipOrder.SPEED / DATE / RATING without equality filters, and the matching range filters
+CREATE INDEX idx_ship_speed ON ship (speed);
+CREATE INDEX idx_ship_prod_date ON ship (prodDate);
+CREATE INDEX idx_ship_rating ON ship (rating);
+CREATE INDEX idx_ship_crew_size ON ship (crewSize);
+
+-- shipType and isUsed are the equality filters dashboards combine with a range filter or a sort;
+-- the leading (shipType, isUsed) prefix also covers counts on those two filters
+CREATE INDEX idx_ship_type_used_speed ON ship (shipType, isUsed, speed);
+CREATE INDEX idx_ship_type_used_prod_date ON ship (shipType, isUsed, prodDate);
+CREATE INDEX idx_ship_type_used_rating ON ship (shipType, isUsed, rating);
@@ -0,0 +1,2 @@
+-- optimistic-lock version of each ship; GET /rest/ships/{id} derives its ETag from it
+ALTER TABLE ship ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -3,6 +3,13 @@ package com.space.controller;
 import com.space.config.AppConfig;
 import com.space.config.MyWebAppInit;
 import com.space.config.WebConfig;
+import com.space.service.ShipBitmapIndex;
+import com.space.service.ShipModifications;
+import com.space.service.ShipRangeIndex;
+import com.space.service.ShipReplica;
+import com.space.service.ShipTextIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +23,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.persistence.EntityManagerFactory;
+
 @RunWith(SpringJUnit4ClassRunner.class)
 @ActiveProfiles("dev")
 @ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class})
@@ -34,5 +43,23 @@ public abstract class AbstractTest {
     @Before
     public void setup() {
         mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // test.sql rewrites the table behind Hibernate's back, so cached ships, query results and the in-memory indexes are stale
+        sessionFactory().getCache().evictAllRegions();
+        context.getBean(ShipTextIndex.class).invalidate();
+        context.getBean(ShipBitmapIndex.class).invalidate();
+        context.getBean(ShipReplica.class).invalidate();
+        context.getBean(ShipRangeIndex.class).invalidate();
+        context.getBean(ShipModifications.class).increment();
+        context.getBean(ShipJsonCache.class).clear();
+    }
+
+    SessionFactory sessionFactory() {
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class);
+    }
+
+    Statistics startStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        statistics.clear();
+        return statistics;
     }
 }
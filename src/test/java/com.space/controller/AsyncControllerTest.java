@@ -0,0 +1,105 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.service.ShipExecutor;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"async.enabled=true", "async.poolSize=2", "async.queueCapacity=1"})
+public class AsyncControllerTest extends AbstractTest {
+
+    private MvcResult startAsync(String url) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    //test1
+    @Test
+    public void shipIsReturnedFromThePool() throws Exception {
+        ShipInfoTest expected = new TestsHelper().getShipInfosById(14);
+
+        MvcResult result = mockMvc.perform(asyncDispatch(startAsync("/rest/ships/14")))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ShipInfoTest actual = new ObjectMapper().readValue(result.getResponse().getContentAsString(), ShipInfoTest.class);
+        assertEquals("Вернулся неправильный объект при асинхронном запросе GET /rest/ships/{id}", expected, actual);
+
+        result = mockMvc.perform(asyncDispatch(startAsync("/rest/ships/count?shipType=MERCHANT")))
+                .andExpect(status().isOk())
+                .andReturn();
+        TestsHelper helper = new TestsHelper();
+        assertEquals("Неверное количество кораблей при асинхронном запросе.",
+                String.valueOf(helper.getShipInfosByShipType(ShipType.MERCHANT, helper.getAllShips()).size()),
+                result.getResponse().getContentAsString());
+    }
+
+    //test2
+    @Test
+    public void errorsKeepTheirStatus() throws Exception {
+        mockMvc.perform(get("/rest/ships/test")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(asyncDispatch(startAsync("/rest/ships/410")))
+                .andExpect(status().isNotFound());
+    }
+
+    //test3
+    @Test
+    public void fullPoolAnswersServiceUnavailable() throws Exception {
+        ShipExecutor executor = context.getBean(ShipExecutor.class);
+        Semaphore started = new Semaphore(0);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> blockers = new ArrayList<>();
+        try {
+            // two busy threads and one queued call fill a pool of 2 with a queue of 1; each blocker is let
+            // start before the next is submitted, so none finds the queue still holding the one before it
+            for (int i = 0; i < 3; i++) {
+                blockers.add(executor.submit(() -> {
+                    started.release();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return true;
+                }));
+                if (i < 2) {
+                    started.acquire();
+                }
+            }
+
+            mockMvc.perform(get("/rest/ships/14")
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            for (CompletableFuture<Boolean> blocker : blockers) {
+                blocker.join();
+            }
+        }
+
+        mockMvc.perform(asyncDispatch(startAsync("/rest/ships/14")))
+                .andExpect(status().isOk());
+    }
+}
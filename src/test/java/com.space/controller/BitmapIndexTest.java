@@ -0,0 +1,83 @@
+package com.space.controller;
+
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "search.bitmap.enabled=true")
+public class BitmapIndexTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+
+    private int count(String query) throws Exception {
+        return Integer.parseInt(this.mockMvc.perform(get("/rest/ships/count" + query)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private void assertTypeAndUseCounts(List<ShipInfoTest> ships) throws Exception {
+        assertEquals("Неверное количество кораблей без фильтров.", ships.size(), count(""));
+        for (Boolean isUsed : new Boolean[]{true, false}) {
+            assertEquals("Неверное количество кораблей с isUsed=" + isUsed + ".",
+                    testsHelper.getShipInfosByIsUsed(isUsed, ships).size(), count("?isUsed=" + isUsed));
+        }
+        for (ShipType shipType : ShipType.values()) {
+            assertEquals("Неверное количество кораблей с shipType=" + shipType + ".",
+                    testsHelper.getShipInfosByShipType(shipType, ships).size(), count("?shipType=" + shipType));
+            for (Boolean isUsed : new Boolean[]{true, false}) {
+                assertEquals("Неверное количество кораблей с shipType=" + shipType + " и isUsed=" + isUsed + ".",
+                        testsHelper.getShipInfosByIsUsed(isUsed, testsHelper.getShipInfosByShipType(shipType, ships)).size(),
+                        count("?shipType=" + shipType + "&isUsed=" + isUsed));
+            }
+        }
+    }
+
+    //test1
+    @Test
+    public void getCountByShipTypeAndIsUsedIssuesNoQuery() throws Exception {
+        count("?shipType=MERCHANT");
+
+        Statistics statistics = startStatistics();
+        assertTypeAndUseCounts(testsHelper.getAllShips());
+        assertEquals("Количество по shipType и isUsed должно считаться без SQL-запросов.", 0L, statistics.getPrepareStatementCount());
+    }
+
+    //test2
+    @Test
+    public void getCountByShipTypeAndIsUsedFollowsWrites() throws Exception {
+        count("");
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+
+        this.mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        ships.add(new ShipInfoTest(41L, "123456789", "Earth", ShipType.MILITARY, 32998274577071L, false, 0.8, 14, null));
+
+        this.mockMvc.perform(post("/rest/ships/4")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"shipType\":\"TRANSPORT\",\"isUsed\":true}"))
+                .andExpect(status().isOk());
+        ships.get(3).shipType = ShipType.TRANSPORT;
+        ships.get(3).isUsed = true;
+
+        this.mockMvc.perform(delete("/rest/ships/11"))
+                .andExpect(status().isOk());
+        ships.remove(10);
+
+        assertTypeAndUseCounts(ships);
+    }
+}
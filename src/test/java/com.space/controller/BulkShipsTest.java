@@ -0,0 +1,156 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BulkShipsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    private int bulkUpdate(String query, String body) throws Exception {
+        return Integer.parseInt(mockMvc.perform(post("/rest/ships/bulk" + query)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private int count(String query) throws Exception {
+        return Integer.parseInt(mockMvc.perform(get("/rest/ships/count" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private ShipInfoTest getShip(long id) throws Exception {
+        return mapper.readValue(mockMvc.perform(get("/rest/ships/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+    }
+
+    // the single-ship update recomputes the rating in Java from the same stored values
+    private ShipInfoTest updateShip(long id, String body) throws Exception {
+        return mapper.readValue(mockMvc.perform(post("/rest/ships/" + id)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+    }
+
+    //test1
+    @Test
+    public void bulkUseRecomputesRatingLikeSingleUpdate() throws Exception {
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+        List<ShipInfoTest> unused = testsHelper.getShipInfosByIsUsed(false, ships);
+
+        assertEquals("Неверное количество обновлённых кораблей.", unused.size(), bulkUpdate("?isUsed=false", "{\"isUsed\":true}"));
+        assertEquals("Все корабли должны стать использованными.", ships.size(), count("?isUsed=true"));
+
+        for (ShipInfoTest ship : ships) {
+            ShipInfoTest bulk = getShip(ship.id);
+            ShipInfoTest single = updateShip(ship.id, "{\"isUsed\":true}");
+            assertEquals("Рейтинг, пересчитанный в SQL, отличается от рейтинга корабля " + ship.id + ".", single.rating, bulk.rating);
+        }
+
+        assertEquals("Неверное количество обновлённых кораблей.", ships.size(), bulkUpdate("?minSpeed=0.01", "{\"isUsed\":false}"));
+        for (ShipInfoTest ship : ships) {
+            ShipInfoTest bulk = getShip(ship.id);
+            ShipInfoTest single = updateShip(ship.id, "{\"isUsed\":false}");
+            assertEquals("Рейтинг, пересчитанный в SQL, отличается от рейтинга корабля " + ship.id + ".", single.rating, bulk.rating);
+        }
+    }
+
+    //test2
+    @Test
+    public void bulkSpeedRecomputesRatingForEverySpeed() throws Exception {
+        for (int cents = 1; cents <= 99; cents++) {
+            String body = "{\"speed\":" + cents / 100.0 + "}";
+            assertEquals("Должен обновиться один корабль.", 1, bulkUpdate("?name=Serenity", body));
+
+            ShipInfoTest bulk = getShip(13);
+            ShipInfoTest single = updateShip(13, body);
+            assertEquals("Рейтинг, пересчитанный в SQL, отличается при скорости " + cents / 100.0 + ".", single.rating, bulk.rating);
+        }
+    }
+
+    //test3
+    @Test
+    public void bulkUpdateWithProdDateAndOtherFields() throws Exception {
+        List<ShipInfoTest> military = testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips());
+
+        assertEquals("Неверное количество обновлённых кораблей.", military.size(),
+                bulkUpdate("?shipType=MILITARY", "{\"prodDate\":32998274577071,\"crewSize\":100,\"shipType\":\"TRANSPORT\"}"));
+        assertEquals("Обновлённые корабли не находятся по новому типу.", 0, count("?shipType=MILITARY"));
+        assertEquals("Обновлённые корабли не находятся по новому экипажу.", military.size(), count("?minCrewSize=100&maxCrewSize=100"));
+
+        for (ShipInfoTest ship : military) {
+            ShipInfoTest bulk = getShip(ship.id);
+            ShipInfoTest single = updateShip(ship.id, "{\"prodDate\":32998274577071}");
+            assertEquals("Рейтинг, пересчитанный в SQL, отличается от рейтинга корабля " + ship.id + ".", single.rating, bulk.rating);
+        }
+    }
+
+    //test4
+    @Test
+    public void bulkRenameIsVisibleToSearchAndCache() throws Exception {
+        getShip(14);
+
+        assertEquals("Неверное количество обновлённых кораблей.", testsHelper.getShipInfosByPlanet("Mars", testsHelper.getAllShips()).size(),
+                bulkUpdate("?planet=Mars", "{\"planet\":\"Phobos\"}"));
+
+        assertEquals("Кэшированный корабль не обновился.", "Phobos", getShip(14).planet);
+        assertEquals("Переименованные корабли не находятся поиском.", 4, count("?planet=Phobos"));
+        assertEquals("Старое имя планеты всё ещё находится поиском.", 0, count("?planet=Mars"));
+    }
+
+    //test5
+    @Test
+    public void bulkDeleteByFilter() throws Exception {
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+        int saturn = testsHelper.getShipInfosByPlanet("Saturn", ships).size();
+
+        String deleted = mockMvc.perform(delete("/rest/ships/bulk")
+                .param("planet", "Saturn"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Неверное количество удалённых кораблей.", saturn, Integer.parseInt(deleted));
+        assertEquals("Удалённые корабли находятся поиском.", 0, count("?planet=Saturn"));
+        assertEquals("Неверное общее количество кораблей после удаления.", ships.size() - saturn, count(""));
+        mockMvc.perform(get("/rest/ships/13"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test6
+    @Test
+    public void bulkRequiresFilterAndValidBody() throws Exception {
+        mockMvc.perform(delete("/rest/ships/bulk"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"isUsed\":true}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/rest/ships/bulk?planet=Mars")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/rest/ships/bulk?planet=Mars")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":1.5}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals("Неверное общее количество кораблей.", testsHelper.getAllShips().size(), count(""));
+    }
+}
@@ -0,0 +1,108 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CacheTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getShipTwiceHitsEntityCache() throws Exception {
+        mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        Statistics statistics = startStatistics();
+        mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Повторный GET /rest/ships/{id} не должен обращаться к БД.", 0L, statistics.getPrepareStatementCount());
+        assertEquals("Повторный GET /rest/ships/{id} должен брать корабль из кэша.", 1L, statistics.getSecondLevelCacheHitCount());
+    }
+
+    //test2
+    @Test
+    public void getAllTwiceHitsQueryCache() throws Exception {
+        mockMvc.perform(get("/rest/ships?shipType=MILITARY&order=SPEED")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/count?shipType=MILITARY&minSpeed=0.1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        Statistics statistics = startStatistics();
+        mockMvc.perform(get("/rest/ships?shipType=MILITARY&order=SPEED")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/count?shipType=MILITARY&minSpeed=0.1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Повторные запросы списка и количества должны браться из кэша запросов.", 2L, statistics.getQueryCacheHitCount());
+    }
+
+    //test3
+    @Test
+    public void updateShipRefreshesCachedShip() throws Exception {
+        mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        ShipInfoTest actual = new ObjectMapper().readValue(contentAsString, ShipInfoTest.class);
+
+        assertEquals("После POST /rest/ships/{id} из кэша вернулся устаревший корабль.", "123456789", actual.name);
+    }
+
+    //test4
+    @Test
+    public void deleteShipEvictsCachedShip() throws Exception {
+        mockMvc.perform(get("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+    }
+
+    //test5
+    @Test
+    public void cacheMetricsAreExposed() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/metrics/cache")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Map<?, ?> metrics = new ObjectMapper().readValue(contentAsString, Map.class);
+
+        assertTrue("GET /rest/metrics/cache должен возвращать статистику кэша.",
+                metrics.containsKey("shipHits") && metrics.containsKey("queryMisses"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "fleet.etag.enabled=true")
+public class ConditionalGetTest extends AbstractTest {
+
+    private MockHttpServletResponse perform(String url, String ifNoneMatch) throws Exception {
+        return mockMvc.perform(ifNoneMatch == null ? get(url) : get(url).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                .andReturn().getResponse();
+    }
+
+    //test1
+    @Test
+    public void getShipAnswersNotModifiedWithoutLoadingIt() throws Exception {
+        MockHttpServletResponse first = perform("/rest/ships/14", null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull("Ответ GET /rest/ships/{id} должен содержать ETag.", etag);
+
+        perform("/rest/ships/14", etag);
+        sessionFactory().getCache().evictEntityData();
+        Statistics statistics = startStatistics();
+        MockHttpServletResponse second = perform("/rest/ships/14", etag);
+
+        assertEquals("Неизменённый корабль должен возвращать 304.", 304, second.getStatus());
+        assertEquals("Ответ 304 не должен содержать тело.", "", second.getContentAsString());
+        assertEquals("Ответ 304 должен повторять ETag.", etag, second.getHeader(HttpHeaders.ETAG));
+        assertEquals("Для ответа 304 корабль не должен загружаться.", 0L, statistics.getEntityLoadCount());
+        assertEquals("Версия должна браться из кэша запросов.", 0L, statistics.getPrepareStatementCount());
+    }
+
+    //test2
+    @Test
+    public void getShipEtagChangesWithUpdate() throws Exception {
+        String etag = perform("/rest/ships/14", null).getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.5}"))
+                .andExpect(status().isOk());
+
+        MockHttpServletResponse response = perform("/rest/ships/14", etag);
+        assertEquals("Изменённый корабль должен возвращаться полностью.", 200, response.getStatus());
+        assertNotEquals("ETag должен меняться после изменения корабля.", etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("Новый ETag должен давать 304.", 304, perform("/rest/ships/14", response.getHeader(HttpHeaders.ETAG)).getStatus());
+    }
+
+    //test3
+    @Test
+    public void bulkUpdateChangesEtagOfMatchedShipsOnly() throws Exception {
+        String earth = perform("/rest/ships/3", null).getHeader(HttpHeaders.ETAG);
+        String mars = perform("/rest/ships/1", null).getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/rest/ships/bulk?planet=Earth")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":100}"))
+                .andExpect(status().isOk());
+
+        assertEquals("Массовое изменение должно менять ETag затронутых кораблей.", 200, perform("/rest/ships/3", earth).getStatus());
+        assertEquals("Массовое изменение не должно менять ETag остальных кораблей.", 304, perform("/rest/ships/1", mars).getStatus());
+    }
+
+    //test4
+    @Test
+    public void getAllAnswersNotModifiedWithoutQuery() throws Exception {
+        String url = "/rest/ships?isUsed=false&order=SPEED";
+        String etag = perform(url, null).getHeader(HttpHeaders.ETAG);
+        assertNotNull("Ответ GET /rest/ships должен содержать ETag.", etag);
+
+        Statistics statistics = startStatistics();
+        MockHttpServletResponse response = perform(url, "\"other\", W/" + etag);
+        assertEquals("Неизменённый флот должен возвращать 304.", 304, response.getStatus());
+        assertEquals("Для ответа 304 запросы к БД не нужны.", 0L, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        assertEquals("После создания корабля список должен возвращаться полностью.", 200, perform(url, etag).getStatus());
+    }
+
+    //test5
+    @Test
+    public void getCountEtagFollowsDeletes() throws Exception {
+        String url = "/rest/ships/count?shipType=MILITARY";
+        String etag = perform(url, null).getHeader(HttpHeaders.ETAG);
+        assertEquals("Неизменённый флот должен возвращать 304.", 304, perform(url, etag).getStatus());
+
+        mockMvc.perform(delete("/rest/ships/1"))
+                .andExpect(status().isOk());
+        MockHttpServletResponse response = perform(url, etag);
+        assertEquals("После удаления корабля количество должно возвращаться полностью.", 200, response.getStatus());
+        assertNotEquals("ETag должен меняться после удаления.", etag, response.getHeader(HttpHeaders.ETAG));
+    }
+}
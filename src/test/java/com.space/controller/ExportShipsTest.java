@@ -0,0 +1,111 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportShipsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportNdjsonWithFilters() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rest/ships/export")
+                .param("shipType", "MILITARY")
+                .param("isUsed", "false"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue("Неверный Content-Type.", result.getResponse().getContentType().startsWith(ShipController.APPLICATION_NDJSON_VALUE));
+
+        List<ShipInfoTest> actual = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            actual.add(mapper.readValue(line, ShipInfoTest.class));
+        }
+
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByIsUsed(false,
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips()));
+        expected.sort(Comparator.comparing(ship -> ship.id));
+
+        assertEquals("Возвращается неправильный результат при экспорте с фильтрами.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void exportCsvWithoutFilters() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rest/ships/export")
+                .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\r\n");
+        List<ShipInfoTest> expected = testsHelper.getAllShips();
+
+        assertEquals("Неверный заголовок CSV.", ShipCsv.HEADER, lines[0]);
+        assertEquals("Неверное количество строк CSV.", expected.size() + 1, lines.length);
+
+        ShipInfoTest first = expected.stream().min(Comparator.comparing(ship -> ship.id)).get();
+        assertEquals("Неверная первая строка CSV.",
+                first.id + "," + first.name + "," + first.planet + "," + first.shipType + "," + first.prodDate + ","
+                        + first.isUsed + "," + first.speed + "," + first.crewSize + "," + first.rating,
+                lines[1]);
+    }
+
+    //test3
+    @Test
+    public void exportLeavesNothingInSession() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(get("/rest/ships/export"))
+                .andExpect(status().isOk());
+
+        assertEquals("Экспорт должен выполняться одним запросом.", 1, statistics.getPrepareStatementCount());
+        assertEquals("Экспорт не должен класть корабли в кэш второго уровня.", 0, statistics.getSecondLevelCachePutCount());
+        assertEquals("Неверное количество загруженных кораблей.", testsHelper.getAllShips().size(), statistics.getEntityLoadCount());
+    }
+
+    //test4
+    @Test
+    public void exportUnknownFormat() throws Exception {
+        mockMvc.perform(get("/rest/ships/export")
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void exportCsvWithNullColumns() throws Exception {
+        new JdbcTemplate(context.getBean(DataSource.class)).update(
+                "INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) "
+                        + "VALUES ('Ghost, Mk II', NULL, 'MILITARY', NULL, NULL, NULL, NULL, NULL)");
+
+        MvcResult result = mockMvc.perform(get("/rest/ships/export")
+                .param("format", "csv")
+                .param("shipType", "MILITARY"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\r\n");
+        assertEquals("Неверное количество строк CSV.",
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips()).size() + 2, lines.length);
+        assertTrue("Пустые столбцы должны выгружаться пустыми полями.",
+                lines[lines.length - 1].endsWith(",\"Ghost, Mk II\",,MILITARY,,,,,"));
+    }
+}
@@ -5,15 +5,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.controller.utils.ShipInfoTest;
 import com.space.controller.utils.TestsHelper;
 import com.space.model.ShipType;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetAllTest extends AbstractTest {
@@ -217,4 +224,165 @@ public class GetAllTest extends AbstractTest {
 
         assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами after, before, minCrewSize и maxCrewSize.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test11
+    @Test
+    public void getAllRunsWithoutFlush() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(get("/rest/ships?order=RATING")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Запрос GET /rest/ships должен выполняться в read-only транзакции без flush.", 0L, statistics.getFlushCount());
+    }
+
+    //test12
+    @Test
+    public void getAllWithCursorWalksAllPages() throws Exception {
+        for (ShipOrder order : ShipOrder.values()) {
+            List<ShipInfoTest> actual = new ArrayList<>();
+            String cursor = null;
+            do {
+                String url = "/rest/ships?shipType=MERCHANT&order=" + order + (cursor == null ? "" : "&cursor=" + cursor);
+                MvcResult result = mockMvc.perform(get(url)
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                        .andExpect(status().isOk())
+                        .andReturn();
+
+                actual.addAll(mapper.readValue(result.getResponse().getContentAsString(), typeReference));
+                cursor = result.getResponse().getHeader(ShipController.NEXT_CURSOR_HEADER);
+            } while (cursor != null);
+
+            List<ShipInfoTest> expected = testsHelper.getShipInfosByShipType(ShipType.MERCHANT,
+                    testsHelper.getAllShips());
+            if (order == ShipOrder.DATE) {
+                // getShipInfosByOrder casts prodDate differences to int, which overflows for dates years apart
+                expected.sort(Comparator.comparing(ship -> ship.prodDate));
+            } else {
+                expected = testsHelper.getShipInfosByOrder(order, expected);
+            }
+
+            assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/ships с параметром cursor и order " + order + ".", expected, actual);
+        }
+    }
+
+    //test13
+    @Test
+    public void getAllWithCursorIssuesNoCountQuery() throws Exception {
+        String cursor = mockMvc.perform(get("/rest/ships?order=RATING")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(ShipController.NEXT_CURSOR_HEADER);
+
+        Statistics statistics = startStatistics();
+        mockMvc.perform(get("/rest/ships?order=RATING&cursor=" + cursor)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Запрос GET /rest/ships с параметром cursor должен выполнять один SQL-запрос.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test14
+    @Test
+    public void getAllWithForeignCursorIsBadRequest() throws Exception {
+        String cursor = mockMvc.perform(get("/rest/ships?order=RATING")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(ShipController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/rest/ships?order=SPEED&cursor=" + cursor)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/rest/ships?cursor=not-a-cursor")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test15
+    @Test
+    public void getAllIssuesNoCountQuery() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(get("/rest/ships?isUsed=false&order=SPEED&pageNumber=1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Запрос GET /rest/ships должен выполнять один SQL-запрос без подсчёта количества.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test16
+    @Test
+    public void getAllWithFilterNameSeesCreatedAndUpdatedShips() throws Exception {
+        mockMvc.perform(get("/rest/ships?name=ale")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Scorpio 4567\", \"planet\": \"Kepler\"}")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships?name=4567&pageSize=10")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+
+        assertEquals("GET /rest/ships с параметром name не нашёл созданный и изменённый корабли.", 2, actual.size());
+
+        contentAsString = mockMvc.perform(get("/rest/ships?planet=epl")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        actual = mapper.readValue(contentAsString, typeReference);
+
+        assertEquals("GET /rest/ships с параметром planet не нашёл изменённый корабль.", 1, actual.size());
+    }
+
+    //test17
+    @Test
+    public void getAllWithFilterNameSkipsDeletedShip() throws Exception {
+        mockMvc.perform(get("/rest/ships?name=Orion")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships?name=Orion")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3,
+                testsHelper.getShipInfosByName("Orion",
+                        testsHelper.getAllShips()));
+        expected.removeIf(ship -> ship.id == 1L);
+
+        assertEquals("GET /rest/ships с параметром name вернул удалённый корабль.", expected, actual);
+    }
+
+    //test18
+    @Test
+    public void getAllIsNotTaggedWithoutFleetEtag() throws Exception {
+        mockMvc.perform(get("/rest/ships")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/rest/ships/count")
+                .header(HttpHeaders.IF_NONE_MATCH, "*")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
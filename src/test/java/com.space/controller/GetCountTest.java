@@ -2,11 +2,13 @@ package com.space.controller;
 
 import com.space.controller.utils.TestsHelper;
 import com.space.model.ShipType;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -152,4 +154,22 @@ public class GetCountTest extends AbstractTest {
 
         assertSame("Во звращается не правильный результат при запросе GET /rest/ships/count с параметрами isUsed, minSpeed и maxSpeed.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test9
+    @Test
+    public void getCountDoesNotLoadEntities() throws Exception {
+        Statistics statistics = startStatistics();
+
+        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?planet=us&minSpeed=0.3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        int actual = Integer.parseInt(resultActions.andReturn().getResponse().getContentAsString());
+        int expected = testsHelper.getShipInfosByPlanet("us",
+                testsHelper.getShipInfosByMinSpeed(0.3,
+                        testsHelper.getAllShips())).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/ships/count с параметрами planet и minSpeed.", expected, actual);
+        assertEquals("При запросе GET /rest/ships/count не должны загружаться сущности Ship.", 0L, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,79 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ImportShipsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode importShips(String contentType, String body) throws Exception {
+        String contentAsString = mockMvc.perform(post("/rest/ships/import")
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+
+    private int count(String query) throws Exception {
+        return Integer.parseInt(mockMvc.perform(get("/rest/ships/count" + query)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    //test1
+    @Test
+    public void importJsonArrayKeepsValidRows() throws Exception {
+        int before = count("?name=123456789");
+
+        JsonNode result = importShips(MediaType.APPLICATION_JSON_VALUE,
+                "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.EMPTY_NAME_JSON + "," + TestsHelper.NO_IS_USED_JSON + "]");
+
+        assertEquals("Неверное количество импортированных кораблей.", 2, result.get("imported").asInt());
+        assertEquals("Неверное количество отклонённых кораблей.", 1, result.get("failed").asInt());
+        assertEquals("Неверный номер отклонённой строки.", 1, result.get("errors").get(0).get("row").asInt());
+        assertEquals("Импортированные корабли не находятся поиском.", before + 2, count("?name=123456789"));
+        assertEquals("Неверное общее количество кораблей после импорта.", testsHelper.getAllShips().size() + 2, count(""));
+    }
+
+    //test2
+    @Test
+    public void importNdjsonReportsRowErrorsAndComputesRating() throws Exception {
+        String body = TestsHelper.NORMAL_JSON + "\n"
+                + TestsHelper.NORMAL_JSON.replace("MILITARY", "STARSHIP") + "\n"
+                + TestsHelper.TOO_BIG_CREW_SIZE_JSON + "\n"
+                + TestsHelper.NORMAL_JSON + "\n";
+
+        JsonNode result = importShips(ShipController.APPLICATION_NDJSON_VALUE, body);
+
+        assertEquals("Неверное количество импортированных кораблей.", 2, result.get("imported").asInt());
+        assertEquals("Неверное количество отклонённых кораблей.", 2, result.get("failed").asInt());
+        assertEquals("Неверный номер отклонённой строки.", 1, result.get("errors").get(0).get("row").asInt());
+        assertEquals("Неверный номер отклонённой строки.", 2, result.get("errors").get(1).get("row").asInt());
+        // NORMAL_JSON: speed 0.8, new ship, year 3015 -> rating 12.8
+        assertEquals("Импортированным кораблям не вычислен рейтинг.", 2, count("?name=123456789&minRating=12.8&maxRating=12.8"));
+    }
+
+    //test3
+    @Test
+    public void importKeepsRowsBeforeBrokenSyntax() throws Exception {
+        String body = TestsHelper.NORMAL_JSON + "\n{\"name\": \"broken\n";
+
+        JsonNode result = importShips(ShipController.APPLICATION_NDJSON_VALUE, body);
+
+        assertEquals("Неверное количество импортированных кораблей.", 1, result.get("imported").asInt());
+        assertEquals("Неверное количество отклонённых кораблей.", 1, result.get("failed").asInt());
+    }
+}
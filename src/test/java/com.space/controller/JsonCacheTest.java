@@ -0,0 +1,87 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.service.IShipService;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class JsonCacheTest extends AbstractTest {
+
+    private MockHttpServletResponse getOk(String url) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    //test1
+    @Test
+    public void splicedListMatchesJackson() throws Exception {
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        IShipService shipService = context.getBean(IShipService.class);
+        getOk("/rest/ships?order=RATING&pageSize=10");
+
+        MockHttpServletResponse response = getOk("/rest/ships?order=RATING&pageSize=10");
+        List<Ship> ships = shipService.getShipsSlice(new ShipFilter(null, null, null, null, null, null, null, null, null, null, null, null),
+                PageRequest.of(0, 10, Sort.by("rating").and(Sort.by("id")))).getContent();
+
+        assertArrayEquals("Собранный из фрагментов список отличается от вывода Jackson.",
+                objectMapper.writeValueAsBytes(ships), response.getContentAsByteArray());
+        assertEquals("Неверная длина ответа.", response.getContentAsByteArray().length, response.getContentLength());
+        assertTrue("Неверный тип ответа.", MediaType.APPLICATION_JSON_UTF8.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+    }
+
+    //test2
+    @Test
+    public void shipIsRenderedOncePerVersion() throws Exception {
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        ShipJsonCache jsonCache = context.getBean(ShipJsonCache.class);
+        Ship ship = context.getBean(IShipService.class).getShip(14L);
+
+        byte[] first = jsonCache.object(ship).getFragments().get(0);
+        assertSame("Фрагмент неизменённого корабля должен браться из кэша.", first, jsonCache.object(ship).getFragments().get(0));
+        assertArrayEquals("Фрагмент отличается от вывода Jackson.", objectMapper.writeValueAsBytes(ship), first);
+        assertArrayEquals("Ответ GET /rest/ships/{id} отличается от вывода Jackson.", first, getOk("/rest/ships/14").getContentAsByteArray());
+    }
+
+    //test3
+    @Test
+    public void updatedShipIsRenderedAgain() throws Exception {
+        getOk("/rest/ships/14");
+        getOk("/rest/ships?pageSize=20");
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/bulk?shipType=MILITARY")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\":\"Caladan\"}"))
+                .andExpect(status().isOk());
+
+        Ship ship = context.getBean(IShipService.class).getShip(14L);
+        String single = getOk("/rest/ships/14").getContentAsString();
+        assertTrue("После изменения должен возвращаться новый JSON корабля.", single.contains("\"Renamed\""));
+        assertEquals("Массовое изменение должно попадать в ответ.", "MILITARY".equals(ship.getShipType().name()),
+                single.contains("\"Caladan\""));
+        assertTrue("Список должен содержать изменённый корабль.", getOk("/rest/ships?pageSize=20").getContentAsString().contains("\"Renamed\""));
+        assertEquals("ETag должен соответствовать версии корабля.", ShipETags.ship(14, ship.getVersion(), null),
+                getOk("/rest/ships/14").getHeader(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,100 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class QueryCountTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getShipIssuesOneQuery() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("GET /rest/ships/{id} должен выполнять один SQL-запрос.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test2
+    @Test
+    public void getShipNotExistIssuesOneQuery() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(get("/rest/ships/410")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+
+        assertEquals("GET /rest/ships/{id} для несуществующего id должен выполнять один SQL-запрос.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test3
+    @Test
+    public void deleteShipIssuesOneQuery() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(delete("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("DELETE /rest/ships/{id} должен выполнять один SQL-запрос.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test4
+    @Test
+    public void deleteShipNotExistIssuesOneQuery() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(delete("/rest/ships/426")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+
+        assertEquals("DELETE /rest/ships/{id} для несуществующего id должен выполнять один SQL-запрос.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test5
+    @Test
+    public void updateShipIssuesOneSelectAndOneUpdate() throws Exception {
+        Statistics statistics = startStatistics();
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("POST /rest/ships/{id} должен выполнять один SELECT и один UPDATE.", 2L, statistics.getPrepareStatementCount());
+        assertEquals("POST /rest/ships/{id} должен загружать корабль один раз.", 1L, statistics.getEntityLoadCount());
+    }
+
+    //test6
+    @Test
+    public void sameFilterShapeReusesQueryPlan() throws Exception {
+        mockMvc.perform(get("/rest/ships?shipType=MILITARY&minSpeed=0.1&order=RATING")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/count?shipType=MILITARY&minSpeed=0.1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        Statistics statistics = startStatistics();
+        mockMvc.perform(get("/rest/ships?shipType=TRANSPORT&minSpeed=0.5&order=RATING&pageNumber=1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/count?shipType=MERCHANT&minSpeed=0.3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertEquals("Запросы с теми же фильтрами, но другими значениями, не должны заново транслироваться в SQL.", 0L, statistics.getQueryPlanCacheMissCount());
+        assertEquals("Неверное количество SQL-запросов.", 2L, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,146 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.service.IShipService;
+import com.space.service.ShipRangeIndex;
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the sorted range index is queried directly and compared with the JPA path the service uses by default
+public class RangeIndexTest extends AbstractTest {
+    private static final Sort[] SORTS = {
+            Sort.unsorted(),
+            Sort.by("id"),
+            Sort.by("speed").and(Sort.by("id")),
+            Sort.by("prodDate").and(Sort.by("id")),
+            Sort.by("rating").and(Sort.by("id"))};
+
+    private final Random random = new Random(20191108);
+
+    private <T> T maybe(T value) {
+        return random.nextInt(3) == 0 ? value : null;
+    }
+
+    private ShipFilter randomFilter() {
+        return new ShipFilter(null, null, maybe(ShipType.values()[random.nextInt(ShipType.values().length)]),
+                maybe(28000000000000L + (long) (random.nextDouble() * 5000000000000L)),
+                maybe(31000000000000L + (long) (random.nextDouble() * 2000000000000L)),
+                maybe(random.nextBoolean()),
+                maybe(random.nextInt(60) / 100.0), maybe(0.4 + random.nextInt(60) / 100.0),
+                maybe(random.nextInt(3000)), maybe(1000 + random.nextInt(4000)),
+                maybe(random.nextInt(300) / 100.0), maybe(1 + random.nextInt(2000) / 100.0));
+    }
+
+    private static String ids(List<Ship> ships) {
+        return ships.stream().map(ship -> String.valueOf(ship.getId())).collect(Collectors.joining(","));
+    }
+
+    private static String ids(int[] ids) {
+        return Arrays.stream(ids).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private void assertIndexMatchesDatabase(int filters) {
+        ShipRangeIndex rangeIndex = context.getBean(ShipRangeIndex.class);
+        IShipService shipService = context.getBean(IShipService.class);
+
+        for (int i = 0; i < filters; i++) {
+            sessionFactory().getCache().evictAllRegions();
+            ShipFilter filter = randomFilter();
+            assertEquals("Количество кораблей в индексе отличается от БД.", shipService.getShipsCount(filter), Integer.valueOf(rangeIndex.count(filter)));
+
+            Sort sort = SORTS[random.nextInt(SORTS.length)];
+            Pageable pageable = PageRequest.of(random.nextInt(4), 1 + random.nextInt(7), sort);
+            Slice<Ship> expected = shipService.getShipsSlice(filter, sort.isSorted() ? pageable : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id")));
+            int[] actual = rangeIndex.find(filter, sort, pageable.getOffset(), pageable.getPageSize() + 1);
+            assertEquals("Страница кораблей в индексе отличается от БД.", ids(expected.getContent()),
+                    ids(Arrays.copyOf(actual, Math.min(actual.length, pageable.getPageSize()))));
+            assertEquals("Признак следующей страницы в индексе отличается от БД.", expected.hasNext(), actual.length > pageable.getPageSize());
+
+            if (sort.isSorted() && !expected.getContent().isEmpty()) {
+                Ship last = expected.getContent().get(expected.getContent().size() - 1);
+                String field = sort.iterator().next().getProperty();
+                filter.setSeek(field.equals("speed") ? last.getSpeed() : field.equals("rating") ? last.getRating()
+                        : field.equals("prodDate") ? last.getProdDate() : null, last.getId());
+                Pageable next = PageRequest.of(0, pageable.getPageSize(), sort);
+                assertEquals("Страница после курсора в индексе отличается от БД.",
+                        ids(shipService.getShipsSlice(filter, next).getContent()), ids(rangeIndex.find(filter, sort, 0, pageable.getPageSize())));
+            }
+        }
+    }
+
+    //test1
+    @Test
+    public void rangeIndexAnswersLikeDatabase() {
+        assertIndexMatchesDatabase(300);
+    }
+
+    //test2
+    @Test
+    public void rangeCountNeedsNoQuery() {
+        ShipRangeIndex rangeIndex = context.getBean(ShipRangeIndex.class);
+        ShipFilter filter = new ShipFilter(null, null, null, null, null, null, 0.3, 0.7, null, null, null, null);
+        int expected = rangeIndex.count(filter);
+
+        Statistics statistics = startStatistics();
+        assertEquals("Неверное количество кораблей в диапазоне.", expected, rangeIndex.count(filter));
+        assertEquals("Подсчёт по диапазону не должен обращаться к БД.", 0L, statistics.getPrepareStatementCount());
+    }
+
+    //test3
+    @Test
+    public void rangeIndexFollowsWrites() throws Exception {
+        ShipRangeIndex rangeIndex = context.getBean(ShipRangeIndex.class);
+        rangeIndex.count(new ShipFilter(null, null, null, null, null, null, null, null, null, null, null, null));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/rest/ships")
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .content(TestsHelper.NORMAL_JSON.replace("123456789", "Gunship " + i)))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"isUsed\":true,\"speed\":0.5,\"crewSize\":77}"))
+                .andExpect(status().isOk());
+        for (long id : new long[]{1, 40, 42, 20}) {
+            mockMvc.perform(delete("/rest/ships/" + id))
+                    .andExpect(status().isOk());
+        }
+
+        Statistics statistics = startStatistics();
+        rangeIndex.count(new ShipFilter(null, null, null, null, null, null, 0.1, 0.9, null, null, null, null));
+        assertEquals("Индекс должен обновляться без перезагрузки из БД.", 0L, statistics.getPrepareStatementCount());
+
+        assertIndexMatchesDatabase(200);
+    }
+
+    //test4
+    @Test
+    public void disabledBitmapIndexIsNotLoaded() {
+        ShipRangeIndex rangeIndex = context.getBean(ShipRangeIndex.class);
+        ShipFilter filter = new ShipFilter(null, null, ShipType.MILITARY, null, null, false, 0.1, 0.9, null, null, null, null);
+
+        Statistics statistics = startStatistics();
+        int count = rangeIndex.count(filter);
+        assertEquals("Неверное количество кораблей.", context.getBean(IShipService.class).getShipsCount(filter), Integer.valueOf(count));
+        assertEquals("Индекс диапазонов не должен загружать выключенный индекс битовых карт.", 2L, statistics.getPrepareStatementCount());
+    }
+}
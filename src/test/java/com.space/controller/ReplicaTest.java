@@ -0,0 +1,182 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.service.IShipService;
+import com.space.repository.ShipRepository;
+import com.space.service.ShipReplica;
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the in-memory replica is queried directly and compared with the JPA path the service uses by default
+public class ReplicaTest extends AbstractTest {
+    // lowercase fragments that never occur with different case, so the case-insensitive replica and H2 agree;
+    // the ones with LIKE wildcards are left to the database
+    private static final String[] NAMES = {"er", "an", "ro", "us", "qwxz", "r_o", "%e%"};
+    private static final String[] PLANETS = {"er", "ar", "tur", "_a", "u%n"};
+    private static final Sort[] SORTS = {
+            Sort.by("id"),
+            Sort.by("speed").and(Sort.by("id")),
+            Sort.by("prodDate").and(Sort.by("id")),
+            Sort.by("rating").and(Sort.by("id"))};
+
+    private final Random random = new Random(20191107);
+
+    private <T> T pick(T[] values) {
+        return random.nextInt(3) == 0 ? values[random.nextInt(values.length)] : null;
+    }
+
+    private <T> T maybe(T value) {
+        return random.nextInt(3) == 0 ? value : null;
+    }
+
+    private ShipFilter randomFilter() {
+        return new ShipFilter(pick(NAMES), pick(PLANETS), pick(ShipType.values()),
+                maybe(28000000000000L + (long) (random.nextDouble() * 5000000000000L)),
+                maybe(31000000000000L + (long) (random.nextDouble() * 2000000000000L)),
+                maybe(random.nextBoolean()),
+                maybe(random.nextInt(60) / 100.0), maybe(0.4 + random.nextInt(60) / 100.0),
+                maybe(random.nextInt(3000)), maybe(1000 + random.nextInt(4000)),
+                maybe(random.nextInt(300) / 100.0), maybe(1 + random.nextInt(2000) / 100.0));
+    }
+
+    private static boolean wildcards(ShipFilter filter) {
+        return (filter.getName() != null && filter.getName().matches(".*[%_].*"))
+                || (filter.getPlanet() != null && filter.getPlanet().matches(".*[%_].*"));
+    }
+
+    private static String describe(List<Ship> ships) {
+        return ships.stream()
+                .map(ship -> ship.getId() + "," + ship.getName() + "," + ship.getPlanet() + "," + ship.getShipType() + ","
+                        + ship.getProdDate().getTime() + "," + ship.getUsed() + "," + ship.getSpeed() + ","
+                        + ship.getCrewSize() + "," + ship.getRating())
+                .collect(Collectors.joining("\n"));
+    }
+
+    private void assertReplicaMatchesDatabase(int filters) {
+        ShipReplica replica = context.getBean(ShipReplica.class);
+        IShipService shipService = context.getBean(IShipService.class);
+
+        for (int i = 0; i < filters; i++) {
+            // ships created in this test sit in the entity cache with the time of day the DATE column dropped
+            sessionFactory().getCache().evictAllRegions();
+            ShipFilter filter = randomFilter();
+            Sort sort = SORTS[random.nextInt(SORTS.length)];
+            if (!replica.supports(filter, sort)) {
+                assertTrue("Реплика не должна отвечать на шаблоны с подстановкой.", wildcards(filter));
+                continue;
+            }
+            assertEquals("Количество кораблей в реплике отличается от БД.", shipService.getShipsCount(filter), Integer.valueOf(replica.count(filter)));
+
+            Pageable pageable = PageRequest.of(random.nextInt(4), 1 + random.nextInt(7), sort);
+            Slice<Ship> expected = shipService.getShipsSlice(filter, pageable);
+            Slice<Ship> actual = replica.find(filter, pageable);
+            assertEquals("Страница кораблей в реплике отличается от БД.", describe(expected.getContent()), describe(actual.getContent()));
+            assertEquals("Признак следующей страницы в реплике отличается от БД.", expected.hasNext(), actual.hasNext());
+
+            if (!expected.getContent().isEmpty()) {
+                Ship last = expected.getContent().get(expected.getContent().size() - 1);
+                String field = sort.iterator().next().getProperty();
+                filter.setSeek(field.equals("speed") ? last.getSpeed() : field.equals("rating") ? last.getRating()
+                        : field.equals("prodDate") ? last.getProdDate() : null, last.getId());
+                Pageable next = PageRequest.of(0, pageable.getPageSize(), sort);
+                assertEquals("Страница после курсора в реплике отличается от БД.",
+                        describe(shipService.getShipsSlice(filter, next).getContent()), describe(replica.find(filter, next).getContent()));
+            }
+        }
+    }
+
+    //test1
+    @Test
+    public void replicaAnswersLikeDatabase() {
+        assertReplicaMatchesDatabase(300);
+    }
+
+    //test2
+    @Test
+    public void replicaFollowsWrites() throws Exception {
+        ShipReplica replica = context.getBean(ShipReplica.class);
+        replica.count(new ShipFilter(null, null, null, null, null, null, null, null, null, null, null, null));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/rest/ships")
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .content(TestsHelper.NORMAL_JSON.replace("123456789", "Gunship " + i)))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"isUsed\":true,\"speed\":0.5,\"planet\":\"Caladan\"}"))
+                .andExpect(status().isOk());
+        for (long id : new long[]{1, 40, 42, 20}) {
+            mockMvc.perform(delete("/rest/ships/" + id))
+                    .andExpect(status().isOk());
+        }
+
+        Statistics statistics = startStatistics();
+        replica.count(new ShipFilter(null, null, null, null, null, null, null, null, null, null, null, null));
+        assertEquals("Реплика должна обновляться без перезагрузки из БД.", 0L, statistics.getPrepareStatementCount());
+
+        assertReplicaMatchesDatabase(200);
+    }
+
+    //test3
+    @Test
+    public void parallelScanAnswersLikeSequentialScan() throws Exception {
+        String[] names = {"Ranger", "Aurora", "Perseus", "Orion", "Nostromo", "Serenity"};
+        String[] planets = {"Mars", "Saturn", "Jupiter", "Venus", "Neptune"};
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            body.append(String.format(Locale.ROOT,
+                    "{\"name\":\"%s %d\",\"planet\":\"%s\",\"shipType\":\"%s\",\"prodDate\":%d,\"isUsed\":%b,\"speed\":%.2f,\"crewSize\":%d}\n",
+                    names[random.nextInt(names.length)], i, planets[random.nextInt(planets.length)],
+                    ShipType.values()[random.nextInt(ShipType.values().length)],
+                    26300000000000L + (long) (random.nextDouble() * 6700000000000L), random.nextBoolean(),
+                    0.01 + random.nextInt(99) / 100.0, 1 + random.nextInt(9999)));
+        }
+        mockMvc.perform(post("/rest/ships/import")
+                .contentType(ShipController.APPLICATION_NDJSON_VALUE)
+                .content(body.toString()))
+                .andExpect(status().isOk());
+
+        // no threshold and four workers, so even this small fleet is split into single-word chunks
+        ShipReplica sequential = context.getBean(ShipReplica.class);
+        ShipReplica parallel = new ShipReplica(context.getBean(ShipRepository.class), true, 4, 0);
+        try {
+            for (int i = 0; i < 300; i++) {
+                ShipFilter filter = randomFilter();
+                if (wildcards(filter)) {
+                    continue;
+                }
+                assertEquals("Параллельный подсчёт отличается от последовательного.", sequential.count(filter), parallel.count(filter));
+
+                Sort sort = SORTS[random.nextInt(SORTS.length)];
+                Pageable pageable = PageRequest.of(random.nextInt(20), 1 + random.nextInt(30), sort);
+                Slice<Ship> expected = sequential.find(filter, pageable);
+                Slice<Ship> actual = parallel.find(filter, pageable);
+                assertEquals("Параллельная страница отличается от последовательной.", describe(expected.getContent()), describe(actual.getContent()));
+                assertEquals("Признак следующей страницы отличается.", expected.hasNext(), actual.hasNext());
+            }
+        } finally {
+            parallel.destroy();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.space.config.CompressionFilter;
+import com.space.model.Ship;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// lists are tagged too, to see the tags of compressed and binary bodies
+@TestPropertySource(properties = "fleet.etag.enabled=true")
+public class ResponseEncodingTest extends AbstractTest {
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Before
+    @Override
+    public void setup() {
+        super.setup();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean(CompressionFilter.class))
+                .build();
+    }
+
+    private MockHttpServletResponse getOk(String url, MediaType accept, String acceptEncoding) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(accept)
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private static byte[] decode(MockHttpServletResponse response) throws Exception {
+        String encoding = response.getHeader(HttpHeaders.CONTENT_ENCODING);
+        byte[] body = response.getContentAsByteArray();
+        if (encoding == null) {
+            return body;
+        }
+        InputStream in = encoding.equals("gzip") ? new GZIPInputStream(new ByteArrayInputStream(body))
+                : new InflaterInputStream(new ByteArrayInputStream(body));
+        return StreamUtils.copyToByteArray(in);
+    }
+
+    //test1
+    @Test
+    public void largeBodyIsCompressed() throws Exception {
+        byte[] plain = getOk("/rest/ships?pageSize=40", MediaType.APPLICATION_JSON, "identity").getContentAsByteArray();
+
+        for (String encoding : new String[]{"gzip", "deflate"}) {
+            MockHttpServletResponse response = getOk("/rest/ships?pageSize=40", MediaType.APPLICATION_JSON, "br;q=1.0, " + encoding);
+            assertEquals("Неверная кодировка ответа.", encoding, response.getHeader(HttpHeaders.CONTENT_ENCODING));
+            assertTrue("Сжатый ответ должен быть меньше исходного.", response.getContentAsByteArray().length < plain.length);
+            assertArrayEquals("Распакованный ответ отличается от несжатого.", plain, decode(response));
+            assertTrue("Ответ должен зависеть от Accept-Encoding.", response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+            assertTrue("Тег сжатого ответа должен быть слабым.", response.getHeader(HttpHeaders.ETAG).startsWith("W/"));
+        }
+    }
+
+    //test2
+    @Test
+    public void smallBodyIsSentAsIs() throws Exception {
+        MockHttpServletResponse response = getOk("/rest/ships/14", MediaType.APPLICATION_JSON, "gzip, deflate");
+
+        assertNull("Ответ меньше порога не должен сжиматься.", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Неверная длина ответа.", response.getContentAsByteArray().length, response.getContentLength());
+        assertTrue("Тег несжатого ответа должен оставаться сильным.", response.getHeader(HttpHeaders.ETAG).startsWith("\""));
+
+        response = getOk("/rest/ships?pageSize=40", MediaType.APPLICATION_JSON, "gzip;q=0, deflate;q=0");
+        assertNull("Ответ не должен сжиматься кодировкой с q=0.", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    //test3
+    @Test
+    public void binaryFormatsCarryTheSameShips() throws Exception {
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        TypeReference<List<Ship>> ships = new TypeReference<List<Ship>>() {
+        };
+        MockHttpServletResponse json = getOk("/rest/ships?pageSize=40", MediaType.APPLICATION_JSON, "identity");
+        List<Ship> expected = objectMapper.readValue(json.getContentAsByteArray(), ships);
+
+        MockHttpServletResponse cbor = getOk("/rest/ships?pageSize=40", APPLICATION_CBOR, "gzip");
+        assertTrue("Неверный тип ответа.", APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(cbor.getContentType())));
+        List<Ship> fromCbor = new ObjectMapper(new CBORFactory()).registerModule(ShipJsonCodec.module()).readValue(decode(cbor), ships);
+        assertEquals("CBOR-ответ содержит другие корабли.", objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(fromCbor));
+        assertNotEquals("CBOR-ответ должен иметь собственный тег.", json.getHeader(HttpHeaders.ETAG), cbor.getHeader(HttpHeaders.ETAG));
+        assertTrue("Ответ должен зависеть от Accept.", cbor.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+
+        MockHttpServletResponse smile = getOk("/rest/ships/14", APPLICATION_SMILE, "identity");
+        Ship fromSmile = new ObjectMapper(new SmileFactory()).registerModule(ShipJsonCodec.module()).readValue(smile.getContentAsByteArray(), Ship.class);
+        assertEquals("Smile-ответ содержит другой корабль.", objectMapper.writeValueAsString(expected.get(13)), objectMapper.writeValueAsString(fromSmile));
+    }
+
+    //test4
+    @Test
+    public void binaryFormatsAnswerNotModified() throws Exception {
+        MockHttpServletResponse cbor = getOk("/rest/ships/14", APPLICATION_CBOR, "identity");
+        String etag = cbor.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse notModified = mockMvc.perform(get("/rest/ships/14")
+                .accept(APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+        assertEquals("Ответ 304 должен повторять тег CBOR.", etag, notModified.getHeader(HttpHeaders.ETAG));
+        assertTrue("Ответ 304 должен зависеть от Accept.", notModified.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+
+        mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        String smile = getOk("/rest/ships?pageSize=40", APPLICATION_SMILE, "gzip").getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/rest/ships?pageSize=40")
+                .accept(APPLICATION_SMILE)
+                .header(HttpHeaders.IF_NONE_MATCH, smile))
+                .andExpect(status().isNotModified());
+    }
+
+    //test5
+    @Test
+    public void nonBlockingBodyIsSentAsIs() throws Exception {
+        byte[] body = new byte[4096];
+        Arrays.fill(body, (byte) 'a');
+        List<WriteListener> registered = new ArrayList<>();
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                ServletOutputStream out = super.getOutputStream();
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        registered.add(writeListener);
+                    }
+                };
+            }
+        };
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rest/ships");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        context.getBean(CompressionFilter.class).doFilter(request, response, (req, res) -> {
+            ServletOutputStream out = res.getOutputStream();
+            out.setWriteListener(listener);
+            out.write(body);
+        });
+
+        assertEquals("Слушатель должен передаваться потоку контейнера.", Collections.singletonList(listener), registered);
+        assertNull("Неблокирующий ответ не должен сжиматься.", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals("Неблокирующий ответ отличается от записанного.", body, response.getContentAsByteArray());
+    }
+}
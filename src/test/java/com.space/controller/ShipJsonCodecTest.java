@@ -0,0 +1,109 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+// the hand-written codec against the field-visibility mapper WebConfig used before it
+public class ShipJsonCodecTest extends AbstractTest {
+    private final Random random = new Random(20191109);
+
+    private static ObjectMapper reflective() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
+    }
+
+    private <T> T maybeNull(T value) {
+        return random.nextInt(8) == 0 ? null : value;
+    }
+
+    private Ship randomShip() {
+        Ship ship = new Ship();
+        ship.setId(random.nextInt(100000));
+        ship.setName(maybeNull("Ship \"" + random.nextInt(1000) + "\" é世\n"));
+        ship.setPlanet(maybeNull("Planet " + random.nextInt(100)));
+        ship.setShipType(maybeNull(ShipType.values()[random.nextInt(ShipType.values().length)]));
+        ship.setProdDate(maybeNull(new Date(26000000000000L + (long) (random.nextDouble() * 7000000000000L))));
+        ship.setUsed(maybeNull(random.nextBoolean()));
+        ship.setSpeed(maybeNull(random.nextInt(100) / 100.0));
+        ship.setCrewSize(maybeNull(random.nextInt(10000)));
+        ship.setRating(maybeNull(random.nextDouble() * 100));
+        ship.setVersion(random.nextInt(5));
+        return ship;
+    }
+
+    //test1
+    @Test
+    public void writesTheSameBytesAsFieldVisibility() throws Exception {
+        ObjectMapper codec = context.getBean(ObjectMapper.class);
+        ObjectMapper reflective = reflective();
+        List<Ship> ships = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Ship ship = randomShip();
+            assertArrayEquals("Кодек пишет корабль иначе, чем Jackson: " + ship, reflective.writeValueAsBytes(ship), codec.writeValueAsBytes(ship));
+            ships.add(ship);
+        }
+        assertArrayEquals("Кодек пишет список кораблей иначе, чем Jackson.", reflective.writeValueAsBytes(ships), codec.writeValueAsBytes(ships));
+    }
+
+    //test2
+    @Test
+    public void readsLikeFieldVisibility() throws Exception {
+        ObjectMapper codec = context.getBean(ObjectMapper.class);
+        ObjectMapper reflective = reflective();
+        String[] bodies = {
+                TestsHelper.NORMAL_JSON,
+                String.format(TestsHelper.NORMAL_JSON_WITH_ID, 5),
+                TestsHelper.EMPTY_NAME_JSON,
+                TestsHelper.NO_IS_USED_JSON,
+                TestsHelper.TOO_BIG_CREW_SIZE_JSON,
+                "{}",
+                "{\"name\":null,\"speed\":\"0.5\",\"crewSize\":\"14\",\"isUsed\":\"true\",\"version\":7,\"unknown\":{\"a\":[1,2]}}",
+                "{\"crewSize\":14.0,\"speed\":1,\"prodDate\":\"32998274577071\",\"id\":null}"};
+        for (String body : bodies) {
+            assertEquals("Кодек читает корабль иначе, чем Jackson: " + body,
+                    reflective.readValue(body, Ship.class).toString(), codec.readValue(body, Ship.class).toString());
+        }
+
+        String array = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.NO_IS_USED_JSON + "]";
+        assertEquals("Кодек читает список кораблей иначе, чем Jackson.",
+                reflective.readValue(array, new TypeReference<List<Ship>>() { }).toString(),
+                codec.readValue(array, new TypeReference<List<Ship>>() { }).toString());
+    }
+
+    //test3
+    @Test
+    public void rejectsWhatFieldVisibilityRejects() {
+        ObjectMapper codec = context.getBean(ObjectMapper.class);
+        ObjectMapper reflective = reflective();
+        String[] bodies = {"{\"shipType\":\"FREIGHTER\"}", "{\"crewSize\":\"many\"}", "{\"speed\":[1]}", "[1]", "\"ship\""};
+        for (String body : bodies) {
+            assertEquals("Кодек должен отклонять то же, что и Jackson: " + body, failure(reflective, body), failure(codec, body));
+        }
+    }
+
+    private static String failure(ObjectMapper objectMapper, String body) {
+        try {
+            objectMapper.readValue(body, Ship.class);
+            return null;
+        } catch (Exception e) {
+            return e.getClass().getName();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// name and planet searches narrowed by the trigram index must find exactly what the plain LIKE finds
+@TestPropertySource(properties = "search.ngram.enabled=true")
+public class TextIndexTest extends AbstractTest {
+    private static final String[] TERMS = {"a_c", "r_o", "%%%", "0% S", "t_J", "\\_J", "Hél", "lio", "éli", "Orb", "ORB", "orb", "zzz"};
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    private String listed(String field, String term) throws Exception {
+        String content = mockMvc.perform(get("/rest/ships")
+                .param(field, term)
+                .param("pageSize", "100")
+                .param("order", "ID")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> ships = mapper.readValue(content, new TypeReference<List<ShipInfoTest>>() {
+        });
+        return ships.stream().map(ship -> String.valueOf(ship.id)).collect(Collectors.joining(","));
+    }
+
+    private String counted(String field, String term) throws Exception {
+        return mockMvc.perform(get("/rest/ships/count")
+                .param(field, term)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    //test1
+    @Test
+    public void wildcardAndAccentedTermsMatchLike() throws Exception {
+        for (String name : new String[]{"Hélios", "Orbit_Jet", "100% Steel"}) {
+            mockMvc.perform(post("/rest/ships")
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .content(TestsHelper.NORMAL_JSON.replace("123456789", name)))
+                    .andExpect(status().isOk());
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        for (String field : new String[]{"name", "planet"}) {
+            for (String term : TERMS) {
+                List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM ship WHERE " + field + " LIKE ? ORDER BY id",
+                        Long.class, "%" + term + "%");
+                String expected = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+                assertEquals("Поиск по " + field + "=" + term + " отличается от LIKE.", expected, listed(field, term));
+                assertEquals("Количество по " + field + "=" + term + " отличается от LIKE.",
+                        String.valueOf(ids.size()), counted(field, term));
+            }
+        }
+    }
+
+    //test2
+    @Test
+    public void termWithoutCandidatesNeedsNoQuery() throws Exception {
+        assertEquals("Неверное количество кораблей.", "0", counted("name", "Qzx"));
+
+        Statistics statistics = startStatistics();
+        assertEquals("Неверный список кораблей.", "", listed("name", "Qzx"));
+        assertEquals("Неверное количество кораблей.", "0", counted("name", "Qzx"));
+        assertEquals("Пустой набор кандидатов не должен обращаться к БД.", 0L, statistics.getPrepareStatementCount());
+
+        assertEquals("Шаблон с подстановкой должен искаться в БД.", "1,19,25,33", listed("name", "r_o"));
+        assertEquals("Шаблон с подстановкой должен искаться в БД.", 1L, statistics.getPrepareStatementCount());
+    }
+
+    //test3
+    @Test
+    public void nameWithoutCandidatesIssuesNoQuery() throws Exception {
+        mockMvc.perform(get("/rest/ships/count?name=Star")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        Statistics statistics = startStatistics();
+
+        String ships = mockMvc.perform(get("/rest/ships?name=qwxz")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String count = mockMvc.perform(get("/rest/ships/count?name=qwxz")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Неверный список кораблей.", "[]", ships);
+        assertEquals("Неверное количество кораблей.", "0", count);
+        assertEquals("Поиск по имени, которого нет в индексе, не должен обращаться к кораблям в БД.", 0L, statistics.getQueryExecutionCount());
+    }
+}
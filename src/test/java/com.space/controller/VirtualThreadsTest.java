@@ -0,0 +1,95 @@
+package com.space.controller;
+
+import com.space.service.ShipExecutor;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// async.virtualThreads needs Java 21; on older JVMs the class is skipped before the context is created
+@TestPropertySource(properties = {"async.enabled=true", "async.virtualThreads=true", "async.poolSize=2", "async.queueCapacity=1",
+        "db.pool.maxSize=4"})
+public class VirtualThreadsTest extends AbstractTest {
+    private static Method isVirtual;
+
+    @BeforeClass
+    public static void requireVirtualThreads() {
+        try {
+            isVirtual = Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            Assume.assumeNoException("нет виртуальных потоков", e);
+        }
+    }
+
+    //test1
+    @Test
+    public void callsRunOnVirtualThreads() throws Exception {
+        ShipExecutor executor = context.getBean(ShipExecutor.class);
+        Thread thread = executor.submit(Thread::currentThread).join();
+        assertTrue("Вызов должен выполняться в виртуальном потоке.", (Boolean) isVirtual.invoke(thread));
+
+        MvcResult result = mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    //test2
+    @Test
+    public void callsBeyondConnectionPoolWait() throws Exception {
+        ShipExecutor executor = context.getBean(ShipExecutor.class);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> holders = new ArrayList<>();
+        List<MvcResult> results = new ArrayList<>();
+        try {
+            // every one of the db.pool.maxSize connections held, so the requests below have to wait for one
+            for (int i = 0; i < 4; i++) {
+                holders.add(executor.submit(() -> {
+                    executor.acquireConnection();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        executor.releaseConnection();
+                    }
+                    return true;
+                }));
+            }
+
+            // more requests at once than db.pool.maxSize, async.poolSize and async.queueCapacity together
+            for (int i = 0; i < 8; i++) {
+                results.add(mockMvc.perform(get("/rest/ships/14")
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                        .andExpect(request().asyncStarted())
+                        .andReturn());
+            }
+        } finally {
+            release.countDown();
+            for (CompletableFuture<Boolean> holder : holders) {
+                holder.join();
+            }
+        }
+
+        for (MvcResult result : results) {
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk());
+        }
+    }
+}
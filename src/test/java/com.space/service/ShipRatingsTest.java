@@ -0,0 +1,73 @@
+package com.space.service;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShipRatingsTest {
+
+    private static long yearStart(int year) {
+        return LocalDate.of(year, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static int calendarYear(long millis) {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTimeInMillis(millis);
+        return calendar.get(Calendar.YEAR);
+    }
+
+    //test1
+    @Test
+    public void prodYearMatchesCalendarAroundEveryYearBoundary() {
+        for (int year = ShipRatings.MIN_YEAR - 1; year <= ShipRatings.MAX_YEAR + 1; year++) {
+            long start = yearStart(year);
+            long next = yearStart(year + 1);
+            for (long millis : new long[]{start - 1, start, start + 1, (start + next) / 2, next - 1}) {
+                int expectedYear = calendarYear(millis);
+                int expected = expectedYear < ShipRatings.MIN_YEAR || expectedYear > ShipRatings.MAX_YEAR
+                        ? ShipRatings.INVALID_YEAR : expectedYear;
+                assertEquals("Неверный год производства для " + millis, expected, ShipRatings.prodYear(millis));
+            }
+        }
+    }
+
+    //test2
+    @Test
+    public void ratingMatchesBigDecimalOverWholeValidDomain() {
+        for (int year = ShipRatings.MIN_YEAR; year <= ShipRatings.MAX_YEAR; year++) {
+            long start = yearStart(year);
+            long end = yearStart(year + 1) - 1;
+            for (int speedCents = 1; speedCents <= 99; speedCents++) {
+                double speed = speedCents / 100.0;
+                for (boolean isUsed : new boolean[]{false, true}) {
+                    for (long prodDate : new long[]{start, end}) {
+                        double expected = ShipRatings.referenceRating(speed, isUsed, prodDate);
+                        double actual = ShipRatings.rating(speed, isUsed, prodDate);
+                        assertEquals("Неверный рейтинг для speed=" + speed + ", isUsed=" + isUsed + ", year=" + year,
+                                expected, actual, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    //test3
+    @Test
+    public void ratingFallsBackForSpeedsWithMoreDecimals() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double speed = 0.01 + random.nextDouble() * 0.98;
+            boolean isUsed = random.nextBoolean();
+            long prodDate = yearStart(ShipRatings.MIN_YEAR + random.nextInt(ShipRatings.MAX_YEAR - ShipRatings.MIN_YEAR + 1));
+
+            assertEquals("Неверный рейтинг для speed=" + speed,
+                    ShipRatings.referenceRating(speed, isUsed, prodDate), ShipRatings.rating(speed, isUsed, prodDate), 0);
+        }
+    }
+}
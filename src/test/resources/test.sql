@@ -11,6 +11,7 @@ CREATE TABLE ship
     speed    DOUBLE      NULL,
     crewSize INT(4)      NULL,
     rating   DOUBLE      NULL,
+    version  BIGINT      NOT NULL DEFAULT 0,
     PRIMARY KEY (id)
 );
 